@@ -0,0 +1,182 @@
+import java.util.*;
+
+public class ColumnarTimeMap {
+    // Problem: Time Based Key-Value Store (Columnar Storage)
+    // Same operations as TimeMap:
+    // - set(key, value, timestamp): store value for key at timestamp.
+    // - get(key, timestamp): value at the largest stored timestamp <= timestamp, or "".
+    // The TreeMap version pays a red-black tree node and a boxed Integer for every write, and every
+    // floorEntry chases pointers down the tree. Since timestamps for a key normally arrive in increasing
+    // order, store each key's history as two parallel growable arrays instead: an int[] column of
+    // timestamps and a String[] column of values. Writes become an O(1) append and reads a binary search
+    // over a contiguous int[]. Out-of-order writes are still supported by falling back to a TreeMap.
+    // DSA Pattern: HashMap + Sorted Parallel Arrays (Binary Search), TreeMap Fallback
+    // Approach:
+    // 1. Each key maps to a Series holding timestamps[], values[] and size.
+    // 2. set(key, value, timestamp):
+    //    - timestamp > last timestamp (or empty series): append; double the arrays when full.
+    //    - timestamp == last timestamp: overwrite the last value in place.
+    //    - timestamp < last timestamp: out of order. Move this key's history into a TreeMap once and
+    //      serve it from the TreeMap from then on (same behavior as the original TimeMap).
+    // 3. get(key, timestamp):
+    //    - Columnar series: branch-light floor search. Keep a base index and a remaining length; each
+    //      step compares one element and either keeps base or moves it forward by half. The loop has a
+    //      fixed number of iterations (log2 size) and the choice compiles to a conditional move.
+    //    - TreeMap series: floorEntry, as in TimeMap.
+    // 4. main() compares memory and set/get latency with the TreeMap-based TimeMap
+    //    (compile together with 04_TimeBasedKeyValueStore.java).
+    // Key Points to Remember:
+    // - An int[] column costs 4 bytes per timestamp; a TreeMap entry costs ~40 bytes plus a 16-byte
+    //   Integer, and its nodes are scattered across the heap.
+    // - Doubling growth keeps append amortized O(1); trimming is not needed for read-mostly histories.
+    // - Floor search: after the loop, timestamps[base] is the last element <= timestamp unless every
+    //   element is larger, which one final comparison detects.
+    // - The fallback is per key, so one misbehaving producer does not slow down other keys.
+    // - Edge cases: missing key, timestamp before the first version, equal timestamps (overwrite).
+    // Time Complexity:
+    // - set: O(1) amortized append; O(log t) for a key in TreeMap fallback (O(t) once when converting).
+    // - get: O(log t), where t is the number of versions of the key.
+    // Space Complexity: O(n * t)
+    // - About 8 bytes per version (int timestamp + String reference) plus up to 2x growth slack.
+
+    // One key's history, columnar until the first out-of-order write
+    private static final class Series {
+        int[] timestamps = new int[4];        // Sorted timestamp column
+        String[] values = new String[4];      // values[i] belongs to timestamps[i]
+        int size;                             // Number of versions in the columns
+        TreeMap<Integer, String> fallback;    // Non-null once an out-of-order write happened
+
+        void set(String value, int timestamp) {
+            if (fallback != null) {
+                fallback.put(timestamp, value);
+                return;
+            }
+            if (size > 0 && timestamp <= timestamps[size - 1]) {
+                if (timestamp == timestamps[size - 1]) {
+                    values[size - 1] = value;   // Same timestamp: overwrite in place
+                    return;
+                }
+                convertToTree();
+                fallback.put(timestamp, value);
+                return;
+            }
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            timestamps[size] = timestamp;
+            values[size] = value;
+            size++;
+        }
+
+        String get(int timestamp) {
+            if (fallback != null) {
+                Map.Entry<Integer, String> entry = fallback.floorEntry(timestamp);
+                return entry == null ? "" : entry.getValue();
+            }
+            if (size == 0) {
+                return "";
+            }
+            int[] ts = timestamps;
+            int base = 0;
+            int length = size;
+            while (length > 1) {
+                int half = length >>> 1;
+                base = ts[base + half] <= timestamp ? base + half : base;
+                length -= half;
+            }
+            return ts[base] <= timestamp ? values[base] : "";
+        }
+
+        private void convertToTree() {
+            fallback = new TreeMap<>();
+            for (int i = 0; i < size; i++) {
+                fallback.put(timestamps[i], values[i]);
+            }
+            timestamps = null;
+            values = null;
+            size = 0;
+        }
+    }
+
+    private final Map<String, Series> map;   // Key -> its version history
+
+    // Constructor: Initialize the HashMap
+    public ColumnarTimeMap() {
+        map = new HashMap<>();
+    }
+
+    // Set operation: Store the value for the key at the given timestamp
+    public void set(String key, String value, int timestamp) {
+        map.computeIfAbsent(key, k -> new Series()).set(value, timestamp);
+    }
+
+    // Get operation: Retrieve the value for the key at the largest timestamp <= given timestamp
+    public String get(String key, int timestamp) {
+        Series series = map.get(key);
+        return series == null ? "" : series.get(timestamp);
+    }
+
+    // Benchmark: memory and set/get latency against the TreeMap-based TimeMap
+    public static void main(String[] args) {
+        final int keys = 1_000;
+        final int versions = 1_000;
+        final int reads = 5_000_000;
+        String[] names = new String[keys];
+        for (int k = 0; k < keys; k++) {
+            names[k] = "key" + k;
+        }
+        String value = "v";
+
+        for (int round = 0; round < 3; round++) {       // First rounds warm up the JIT
+            long before = usedMemory();
+            long start = System.nanoTime();
+            TimeMap tree = new TimeMap();
+            for (int t = 1; t <= versions; t++) {
+                for (int k = 0; k < keys; k++) tree.set(names[k], value, t * 10);
+            }
+            long treeSetNs = System.nanoTime() - start;
+            long treeBytes = usedMemory() - before;
+
+            before = usedMemory();
+            start = System.nanoTime();
+            ColumnarTimeMap columnar = new ColumnarTimeMap();
+            for (int t = 1; t <= versions; t++) {
+                for (int k = 0; k < keys; k++) columnar.set(names[k], value, t * 10);
+            }
+            long columnarSetNs = System.nanoTime() - start;
+            long columnarBytes = usedMemory() - before;
+
+            Random random = new Random(round);
+            start = System.nanoTime();
+            int hits = 0;
+            for (int i = 0; i < reads; i++) {
+                hits += tree.get(names[random.nextInt(keys)], random.nextInt(versions * 10)).length();
+            }
+            long treeGetNs = System.nanoTime() - start;
+
+            random = new Random(round);
+            start = System.nanoTime();
+            for (int i = 0; i < reads; i++) {
+                hits -= columnar.get(names[random.nextInt(keys)], random.nextInt(versions * 10)).length();
+            }
+            long columnarGetNs = System.nanoTime() - start;
+
+            long total = (long) keys * versions;
+            System.out.printf("round %d: bytes/version TimeMap=%.1f Columnar=%.1f | set ns/op %.1f vs %.1f"
+                            + " | get ns/op %.1f vs %.1f%s%n", round,
+                    (double) treeBytes / total, (double) columnarBytes / total,
+                    (double) treeSetNs / total, (double) columnarSetNs / total,
+                    (double) treeGetNs / reads, (double) columnarGetNs / reads,
+                    hits == 0 ? "" : " (results differ!)");
+            tree = null;
+            columnar = null;
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
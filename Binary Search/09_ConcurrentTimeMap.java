@@ -0,0 +1,211 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+public class ConcurrentTimeMap {
+    // Problem: Concurrent Time Based Key-Value Store
+    // TimeMap uses a plain HashMap and TreeMap, so one instance cannot be shared between ingest threads
+    // (set) and query threads (get). Make it thread-safe so that:
+    // - set(key, value, timestamp) may be called concurrently from many writers.
+    // - get(key, timestamp) never blocks and always sees a consistent prefix of a key's versions:
+    //   every version it can see was fully written, and versions never disappear once seen.
+    // DSA Pattern: ConcurrentHashMap + Sorted Parallel Arrays with a Published Length
+    // Each key owns a Columns object: an int[] of timestamps, a String[] of values, and a volatile
+    // length. Slots [0, length) are immutable once published, so a reader that reads the length and
+    // then searches only that prefix can never see a half-written version.
+    // Approach:
+    // 1. The key -> Series map is a ConcurrentHashMap (lock-free gets, atomic computeIfAbsent).
+    // 2. set(key, value, timestamp), holding the per-key lock (synchronized on the Series):
+    //    - In-order append with spare room: write timestamps[n] and values[n], THEN store length = n + 1.
+    //      The volatile store publishes both array writes to any reader that sees the new length.
+    //    - Append without room, or an out-of-order timestamp: build a new Columns (doubled, with the
+    //      version inserted at its sorted position), set its length, then publish it through the
+    //      volatile columns field (copy-on-write). Old readers keep searching the old, unchanged copy.
+    //    - Equal timestamp: replace the value reference in place (readers see the old or new value,
+    //      both are valid answers).
+    // 3. get(key, timestamp), no locks:
+    //    - c = series.columns (volatile read), n = c.length (volatile read).
+    //    - Branch-light floor search over c.timestamps[0, n).
+    // 4. main() is a stress test: several writers per key, some posting older timestamps after newer
+    //    ones, while readers check floor semantics.
+    // Key Points to Remember:
+    // - Order matters: array slots are written before the volatile length store, and the length is
+    //   read before the slots. That pair of volatile accesses is the whole happens-before argument.
+    // - Published slots are never modified (except the value overwrite above), so readers need no lock
+    //   and no retry loop.
+    // - Writers of different keys never contend; writers of the same key serialize on that key only.
+    // - Out-of-order writes are supported but cost O(t) because of the copy.
+    // - Edge cases: missing key, timestamp before the first version, a reader racing a resize.
+    // Time Complexity:
+    // - set: O(1) amortized for in-order timestamps, O(t) for an out-of-order timestamp.
+    // - get: O(log t), wait-free.
+    // Space Complexity: O(n * t)
+    // - About 8 bytes per version plus up to 2x growth slack per key.
+
+    // Immutable arrays prefix [0, length) plus the published length
+    private static final class Columns {
+        final int[] timestamps;     // Sorted timestamps
+        final String[] values;      // values[i] belongs to timestamps[i]
+        volatile int length;        // Number of published versions
+
+        Columns(int capacity) {
+            this.timestamps = new int[capacity];
+            this.values = new String[capacity];
+        }
+    }
+
+    // One key's history; the monitor is the per-key write lock
+    private static final class Series {
+        volatile Columns columns = new Columns(4);
+
+        synchronized void set(String value, int timestamp) {
+            Columns c = columns;
+            int n = c.length;
+            if (n > 0 && timestamp <= c.timestamps[n - 1]) {
+                int i = Arrays.binarySearch(c.timestamps, 0, n, timestamp);
+                if (i >= 0) {
+                    c.values[i] = value;                    // Same timestamp: overwrite
+                    return;
+                }
+                columns = copyWithInsert(c, n, -i - 1, value, timestamp);
+                return;
+            }
+            if (n == c.timestamps.length) {
+                columns = copyWithInsert(c, n, n, value, timestamp);
+                return;
+            }
+            c.timestamps[n] = timestamp;
+            c.values[n] = value;
+            c.length = n + 1;                               // Publish the new version
+        }
+
+        // New columns with twice the room and one version inserted at index pos
+        private static Columns copyWithInsert(Columns c, int n, int pos, String value, int timestamp) {
+            Columns copy = new Columns(Math.max(4, n * 2));
+            System.arraycopy(c.timestamps, 0, copy.timestamps, 0, pos);
+            System.arraycopy(c.values, 0, copy.values, 0, pos);
+            copy.timestamps[pos] = timestamp;
+            copy.values[pos] = value;
+            System.arraycopy(c.timestamps, pos, copy.timestamps, pos + 1, n - pos);
+            System.arraycopy(c.values, pos, copy.values, pos + 1, n - pos);
+            copy.length = n + 1;
+            return copy;
+        }
+
+        String get(int timestamp) {
+            Columns c = columns;
+            int n = c.length;
+            if (n == 0) {
+                return "";
+            }
+            int[] ts = c.timestamps;
+            int base = 0;
+            while (n > 1) {
+                int half = n >>> 1;
+                base = ts[base + half] <= timestamp ? base + half : base;
+                n -= half;
+            }
+            return ts[base] <= timestamp ? c.values[base] : "";
+        }
+    }
+
+    private final ConcurrentHashMap<String, Series> map;   // Key -> its version history
+
+    // Constructor: Initialize the concurrent map
+    public ConcurrentTimeMap() {
+        map = new ConcurrentHashMap<>();
+    }
+
+    // Set operation: Store the value for the key at the given timestamp (per-key lock)
+    public void set(String key, String value, int timestamp) {
+        map.computeIfAbsent(key, k -> new Series()).set(value, timestamp);
+    }
+
+    // Get operation: value at the largest timestamp <= given timestamp, never blocks
+    public String get(String key, int timestamp) {
+        Series series = map.get(key);
+        return series == null ? "" : series.get(timestamp);
+    }
+
+    // Stress test: concurrent writers and readers on shared keys, checking floor semantics
+    public static void main(String[] args) throws Exception {
+        final int keys = 8;
+        final int writers = 4;
+        final int readers = 8;
+        final int chunk = keys * 4;                     // 4 timestamps of every key per chunk
+        final int chunksPerWriter = 600;
+        final int total = chunk * chunksPerWriter * writers;   // Timestamps 0 .. total - 1, all written
+        ConcurrentTimeMap timeMap = new ConcurrentTimeMap();
+        ExecutorService pool = Executors.newFixedThreadPool(writers + readers);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(writers);
+        List<Future<Long>> results = new ArrayList<>();
+
+        // Timestamp t belongs to key t % keys. Chunks of consecutive timestamps are dealt round-robin
+        // to the writers, so every key is written by all writers at once (per-key lock contention).
+        // Odd writers walk each chunk backwards: for every key they post older timestamps after newer
+        // ones, which forces the out-of-order insert path on top of the cross-writer interleaving.
+        for (int w = 0; w < writers; w++) {
+            final int id = w;
+            results.add(pool.submit(() -> {
+                try {
+                    start.await();
+                    for (int c = id; c < chunksPerWriter * writers; c += writers) {
+                        for (int i = 0; i < chunk; i++) {
+                            int t = c * chunk + (id % 2 == 0 ? i : chunk - 1 - i);
+                            timeMap.set("key" + (t % keys), Integer.toString(t), t);
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+                return 0L;
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            results.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int[] seen = new int[keys];             // Largest timestamp this reader has seen per key
+                Arrays.fill(seen, -1);
+                long checks = 0;
+                start.await();
+                while (done.getCount() > 0) {
+                    int k = random.nextInt(keys);
+                    int query = random.nextInt(total);
+                    String value = timeMap.get("key" + k, query);
+                    int t = value.isEmpty() ? -1 : Integer.parseInt(value);
+                    if (t > query || (t >= 0 && t % keys != k)) {
+                        throw new AssertionError("get(key" + k + ", " + query + ") returned " + t);
+                    }
+                    if (query >= seen[k] && t < seen[k]) {
+                        throw new AssertionError("version " + seen[k] + " of key" + k + " disappeared");
+                    }
+                    seen[k] = Math.max(seen[k], t);
+                    checks++;
+                }
+                return checks;
+            }));
+        }
+        start.countDown();
+        long checks = 0;
+        for (Future<Long> result : results) {
+            checks += result.get();
+        }
+        pool.shutdown();
+
+        // Quiescent check: every query must now return the exact floor, whatever order the writes took
+        for (int k = 0; k < keys; k++) {
+            for (int query = 0; query < total; query++) {
+                int expected = query - Math.floorMod(query - k, keys);   // Largest t <= query with t % keys == k
+                String value = timeMap.get("key" + k, query);
+                String wanted = expected < 0 ? "" : Integer.toString(expected);
+                if (!value.equals(wanted)) {
+                    throw new AssertionError("final get(key" + k + ", " + query + ") = " + value + ", want " + wanted);
+                }
+            }
+        }
+        int backwards = (writers / 2) * chunksPerWriter * keys * 3;   // Older than a version already set
+        System.out.println("stress ok: " + writers + " writers per key, " + total + " versions (" + backwards
+                + " posted behind a newer one by the same writer), " + checks
+                + " concurrent reads checked, final floors exact");
+    }
+}
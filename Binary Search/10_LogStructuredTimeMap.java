@@ -0,0 +1,606 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+public class LogStructuredTimeMap implements AutoCloseable {
+    // Problem: Persistent Time Based Key-Value Store (Log-Structured)
+    // Same set/get contract as TimeMap, but the version history is far larger than the heap. Values must
+    // live on disk; only a compact index stays in memory. Requirements:
+    // - set appends a record to rolling segment files.
+    // - get finds the floor timestamp in the index, then reads just that value with a positional read.
+    // - Restart rebuilds the index from segment footers without replaying every record.
+    // - A truncated or torn tail segment (crash mid-write) is detected and repaired.
+    // DSA Pattern: Append-Only Log + Sparse Per-Key Index over Memory-Mapped Sorted Footers
+    // - Data: segment files segment-<id>.log. The active segment is append-only; when it reaches
+    //   maxSegmentBytes it is "sealed" by writing a footer that lists every record's timestamp and
+    //   value position, grouped by key and sorted by timestamp within each key, and a new segment is
+    //   started.
+    // - Index: a sealed segment's footer is memory-mapped and searched in place. In the heap each key
+    //   keeps one run per sealed segment that holds it: (segment, first footer entry, count, min and
+    //   max timestamp), 20 bytes however many versions the run has. Only the active segment's
+    //   versions are indexed densely in the heap (timestamp, offset, length; the columnar layout of
+    //   ColumnarTimeMap), and that part is bounded by maxSegmentBytes. Heap use therefore grows with
+    //   keys x segments, not with the number of versions.
+    // Record format: int keyLen | int valueLen | int timestamp | key | value | int crc32(all before)
+    // Footer format: entries: E * (int timestamp | int valueOffset | int valueLen), grouped by key
+    //                directory: K * (int keyLen | key | int firstEntry | int entryCount)
+    //                trailer: int K | int E | int footerStart | int directoryStart | int crc32(entries and
+    //                directory) | int MAGIC
+    // Approach:
+    // 1. Open: list segment files in id order.
+    //    - Valid trailer (magic + checksum): map the footer and add one run per directory entry. Values
+    //      and records are never read, and no per-version heap entry is created.
+    //    - No valid trailer (active segment at crash time): scan records from the start, checking each
+    //      record's length and CRC. Stop at the first bad or partial record and truncate the file there
+    //      (repair). Only the last segment can need this; any older unsealed one is sealed after repair.
+    // 2. set(key, value, timestamp): roll the segment if the record does not fit, append the record with
+    //    a positional write, and add (timestamp -> offset, length) to the key's active versions.
+    // 3. Sealing writes each touched key's active versions (already sorted) as its footer group, then
+    //    turns them into a run and clears them.
+    // 4. get(key, timestamp): floor search in the active versions, then in the runs:
+    //    - A run whose max <= timestamp answers with its last entry without touching the footer; a run
+    //      that straddles timestamp is binary searched in the mapped footer.
+    //    - Ordered keys (every run starts after the previous one ends, the usual in-order case) only
+    //      need the last run starting at or before timestamp, found by binary search over the runs.
+    //      Other keys check every run; ties go to the newer segment (newer write wins).
+    //    - Then one FileChannel.read at the stored offset for exactly valueLen bytes.
+    // 5. close(): seal the active segment so the next open is footer-only; an active segment that got
+    //    no records is deleted instead, so open/close cycles do not leave empty segment files behind.
+    // Key Points to Remember:
+    // - The CRC per record makes torn writes detectable: a crash can leave a half record at the tail,
+    //   which the scan stops at and truncates away. Records before it are complete and kept.
+    // - The footer CRC protects the fast path: a damaged footer just falls back to the record scan.
+    // - Sealed segments are immutable, so their footers and data can be cached by the OS page cache
+    //   and read concurrently; a cold footer costs page faults, not heap.
+    // - Out-of-order timestamps are inserted into the active versions at their sorted position (O(t));
+    //   across segments they only make the key "unordered" (get then checks each of its runs).
+    // - sync() forces the active segment to disk; without it, recent writes survive a process crash
+    //   (they are in the page cache) but not a power failure.
+    // - Edge cases: empty directory, directory with only sealed segments, record larger than a segment,
+    //   the same timestamp written again in a later segment.
+    // Time Complexity:
+    // - set: O(1) amortized (append + index append); O(t) for an out-of-order timestamp.
+    // - get: O(log r + log e) for an ordered key with r runs and e entries per run, O(r + log e)
+    //   otherwise, plus one positional read.
+    // - open: O(footer bytes) for sealed segments + O(bytes) of the unsealed tail only.
+    // Space Complexity: O(keys x segments) runs in the heap plus the active segment's versions;
+    // versions of sealed segments cost footer bytes on disk (12 per version), values on disk.
+
+    private static final int RECORD_HEADER = 12;            // keyLen + valueLen + timestamp
+    private static final int ENTRY = 12;                    // timestamp + valueOffset + valueLen
+    private static final int TRAILER = 24;                  // 4 counts/offsets + crc + magic
+    private static final int MAGIC = 0x544D4632;            // "TMF2"
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+
+    // One segment file
+    private static final class Segment {
+        final int id;                 // Number in the file name
+        final Path path;              // File location
+        final FileChannel channel;    // Open for reads (and writes while active)
+        int size;                     // Bytes of records written
+        boolean sealed;               // Footer present, no more appends
+        MappedByteBuffer entries;     // Sealed: the footer, mapped read-only (entries first)
+
+        Segment(int id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+
+    // One key's versions: a run per sealed segment, plus the active segment's versions in the heap
+    private static final class KeyIndex {
+        final byte[] key;                 // UTF-8 key, written into footer directories
+        int[] runSegments = new int[2];   // Position of the run's segment in the segments list
+        int[] runFirst = new int[2];      // First footer entry of the run
+        int[] runCounts = new int[2];     // Entries in the run
+        int[] runMin = new int[2];        // Smallest timestamp in the run
+        int[] runMax = new int[2];        // Largest timestamp in the run
+        int runs;
+        boolean ordered = true;           // Each run's min is above the previous run's max
+        int[] timestamps = new int[4];    // Active segment: sorted timestamps
+        int[] offsets = new int[4];       // Byte offset of the value inside the active segment
+        int[] lengths = new int[4];       // Value length in bytes
+        int size;
+
+        KeyIndex(byte[] key) {
+            this.key = key;
+        }
+
+        // Add an active version; true if it is the key's first one in the active segment
+        boolean add(int timestamp, int offset, int length) {
+            int pos = size;
+            if (size > 0 && timestamp <= timestamps[size - 1]) {
+                pos = Arrays.binarySearch(timestamps, 0, size, timestamp);
+                if (pos >= 0) {
+                    offsets[pos] = offset;        // Same timestamp: newer write wins
+                    lengths[pos] = length;
+                    return false;
+                }
+                pos = -pos - 1;
+            }
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            int tail = size - pos;
+            System.arraycopy(timestamps, pos, timestamps, pos + 1, tail);
+            System.arraycopy(offsets, pos, offsets, pos + 1, tail);
+            System.arraycopy(lengths, pos, lengths, pos + 1, tail);
+            timestamps[pos] = timestamp;
+            offsets[pos] = offset;
+            lengths[pos] = length;
+            return size++ == 0;
+        }
+
+        void addRun(int segment, int first, int count, int min, int max) {
+            if (runs == runSegments.length) {
+                runSegments = Arrays.copyOf(runSegments, runs * 2);
+                runFirst = Arrays.copyOf(runFirst, runs * 2);
+                runCounts = Arrays.copyOf(runCounts, runs * 2);
+                runMin = Arrays.copyOf(runMin, runs * 2);
+                runMax = Arrays.copyOf(runMax, runs * 2);
+            }
+            ordered &= runs == 0 || min > runMax[runs - 1];
+            runSegments[runs] = segment;
+            runFirst[runs] = first;
+            runCounts[runs] = count;
+            runMin[runs] = min;
+            runMax[runs] = max;
+            runs++;
+        }
+
+        // Index of the largest active timestamp <= timestamp, or -1
+        int floor(int timestamp) {
+            if (size == 0) {
+                return -1;
+            }
+            int base = 0;
+            int n = size;
+            while (n > 1) {
+                int half = n >>> 1;
+                base = timestamps[base + half] <= timestamp ? base + half : base;
+                n -= half;
+            }
+            return timestamps[base] <= timestamp ? base : -1;
+        }
+
+        // Last run whose min is <= timestamp (runs are sorted by min when ordered), or -1
+        int lastRunAtOrBefore(int timestamp) {
+            int lo = 0;
+            int hi = runs;                        // First run with min > timestamp
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (runMin[mid] <= timestamp) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo - 1;
+        }
+    }
+
+    private final Path directory;                 // Where segment files live
+    private final int maxSegmentBytes;            // Roll threshold for the active segment
+    private final List<Segment> segments;         // All segments in id order
+    private final Map<String, KeyIndex> index;    // Key -> version locations
+    private final List<KeyIndex> activeKeys;      // Keys with versions in the active segment
+    private Segment active;                       // Segment receiving appends
+    private long repairedBytes;                   // Bytes truncated from torn tails during open
+
+    // Open (or create) a store in the given directory
+    public LogStructuredTimeMap(Path directory, int maxSegmentBytes) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.segments = new ArrayList<>();
+        this.index = new HashMap<>();
+        this.activeKeys = new ArrayList<>();
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    // Set operation: append the value for the key at the given timestamp
+    public void set(String key, String value, int timestamp) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER + keyBytes.length + valueBytes.length + 4;
+        if (active.size > 0 && (long) active.size + length > maxSegmentBytes) {
+            seal(active, segments.size() - 1);
+            active = createSegment(active.id + 1);
+        }
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(keyBytes.length).putInt(valueBytes.length).putInt(timestamp);
+        record.put(keyBytes).put(valueBytes);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, length - 4);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        writeFully(active.channel, record, active.size);
+
+        addToIndex(keyBytes, key, timestamp, active.size + RECORD_HEADER + keyBytes.length, valueBytes.length);
+        active.size += length;
+    }
+
+    // Get operation: value at the largest timestamp <= given timestamp, read from disk
+    public String get(String key, int timestamp) throws IOException {
+        KeyIndex versions = index.get(key);
+        if (versions == null) {
+            return "";
+        }
+        int segment = -1;                         // Best version so far: segment, timestamp, location
+        int best = 0;
+        int offset = 0;
+        int length = 0;
+        int i = versions.floor(timestamp);
+        if (i >= 0) {                             // Active segment is the newest, so it wins ties
+            segment = segments.size() - 1;
+            best = versions.timestamps[i];
+            offset = versions.offsets[i];
+            length = versions.lengths[i];
+        }
+        int hi = versions.ordered ? versions.lastRunAtOrBefore(timestamp) : versions.runs - 1;
+        int lo = versions.ordered ? hi : 0;
+        for (int r = hi; r >= lo && r >= 0; r--) {    // Newest run first; older runs only win if newer
+            if (versions.runMin[r] > timestamp || (segment >= 0 && versions.runMax[r] <= best)) {
+                continue;
+            }
+            ByteBuffer entries = segments.get(versions.runSegments[r]).entries;
+            int first = versions.runFirst[r];
+            int last = first + versions.runCounts[r] - 1;
+            int e = versions.runMax[r] <= timestamp ? last : floorEntry(entries, first, last, timestamp);
+            int found = entries.getInt(e * ENTRY);
+            if (segment < 0 || found > best) {
+                segment = versions.runSegments[r];
+                best = found;
+                offset = entries.getInt(e * ENTRY + 4);
+                length = entries.getInt(e * ENTRY + 8);
+            }
+        }
+        if (segment < 0) {
+            return "";
+        }
+        ByteBuffer value = ByteBuffer.allocate(length);
+        FileChannel channel = segments.get(segment).channel;
+        while (value.hasRemaining()) {
+            int read = channel.read(value, (long) offset + value.position());
+            if (read < 0) {
+                throw new IOException("unexpected end of segment for key " + key);
+            }
+        }
+        return new String(value.array(), StandardCharsets.UTF_8);
+    }
+
+    // Force appended records of the active segment to disk
+    public void sync() throws IOException {
+        active.channel.force(false);
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long repairedBytes() {
+        return repairedBytes;
+    }
+
+    // Seal the active segment (so the next open is footer-only) and close every file
+    @Override
+    public void close() throws IOException {
+        if (!active.sealed && active.size > 0) {
+            seal(active, segments.size() - 1);
+        }
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+        if (active.size == 0) {
+            Files.deleteIfExists(active.path);        // Never written: do not leave an empty segment
+        }
+    }
+
+    // Rebuild the index from footers, scanning and repairing only unsealed segments
+    private void recover() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                ids.add(Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+            }
+        }
+        Collections.sort(ids);
+        for (int i = 0; i < ids.size(); i++) {
+            Path path = segmentPath(ids.get(i));
+            Segment segment = new Segment(ids.get(i), path, FileChannel.open(path,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE));
+            segments.add(segment);
+            if (!loadFooter(segment, segments.size() - 1)) {
+                scanAndRepair(segment);
+                if (i < ids.size() - 1) {
+                    seal(segment, segments.size() - 1);   // Left unsealed by a crash while rolling
+                }
+            }
+        }
+        if (segments.isEmpty() || segments.get(segments.size() - 1).sealed) {
+            active = createSegment(segments.isEmpty() ? 1 : segments.get(segments.size() - 1).id + 1);
+        } else {
+            active = segments.get(segments.size() - 1);   // Unsealed tail (possibly empty) is reused
+        }
+    }
+
+    // Fast path: map a sealed segment's footer and add its runs; false if there is no valid footer
+    private boolean loadFooter(Segment segment, int position) throws IOException {
+        long fileSize = segment.channel.size();
+        if (fileSize < TRAILER) {
+            return false;
+        }
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER);
+        while (trailer.hasRemaining()) {
+            if (segment.channel.read(trailer, fileSize - TRAILER + trailer.position()) < 0) {
+                return false;
+            }
+        }
+        int keyCount = trailer.getInt(0);
+        int entryCount = trailer.getInt(4);
+        int footerStart = trailer.getInt(8);
+        int directoryStart = trailer.getInt(12);
+        long trailerStart = fileSize - TRAILER;
+        if (trailer.getInt(20) != MAGIC || keyCount < 0 || entryCount < 0 || footerStart < 0
+                || directoryStart != (long) footerStart + (long) entryCount * ENTRY || directoryStart > trailerStart) {
+            return false;
+        }
+        MappedByteBuffer footer = segment.channel.map(FileChannel.MapMode.READ_ONLY, footerStart,
+                trailerStart - footerStart);
+        CRC32 crc = new CRC32();
+        crc.update(footer.duplicate());
+        if ((int) crc.getValue() != trailer.getInt(16)) {
+            return false;
+        }
+        ByteBuffer directory = footer.duplicate();
+        directory.position(directoryStart - footerStart);
+        for (int k = 0; k < keyCount; k++) {
+            byte[] key = new byte[directory.getInt()];
+            directory.get(key);
+            int first = directory.getInt();
+            int count = directory.getInt();
+            index.computeIfAbsent(new String(key, StandardCharsets.UTF_8), s -> new KeyIndex(key))
+                    .addRun(position, first, count, footer.getInt(first * ENTRY),
+                            footer.getInt((first + count - 1) * ENTRY));
+        }
+        segment.entries = footer;
+        segment.size = footerStart;
+        segment.sealed = true;
+        return true;
+    }
+
+    // Slow path: validate records one by one and truncate at the first torn or corrupt record
+    private void scanAndRepair(Segment segment) throws IOException {
+        long fileSize = segment.channel.size();
+        MappedByteBuffer file = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        int pos = 0;
+        CRC32 crc = new CRC32();
+        while (pos + RECORD_HEADER + 4 <= fileSize) {
+            int keyLen = file.getInt(pos);
+            int valueLen = file.getInt(pos + 4);
+            int timestamp = file.getInt(pos + 8);
+            long end = (long) pos + RECORD_HEADER + keyLen + valueLen + 4;
+            if (keyLen < 0 || valueLen < 0 || end > fileSize) {
+                break;                                    // Torn length or partial record
+            }
+            ByteBuffer body = file.duplicate();
+            body.position(pos).limit((int) end - 4);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != file.getInt((int) end - 4)) {
+                break;                                    // Corrupt record
+            }
+            byte[] key = new byte[keyLen];
+            file.get(pos + RECORD_HEADER, key);
+            addToIndex(key, new String(key, StandardCharsets.UTF_8), timestamp, pos + RECORD_HEADER + keyLen,
+                    valueLen);
+            pos = (int) end;
+        }
+        if (pos < fileSize) {
+            segment.channel.truncate(pos);
+            segment.channel.force(true);
+            repairedBytes += fileSize - pos;
+        }
+        segment.size = pos;
+    }
+
+    // Write the active versions as a footer after the last record; the segment becomes read-only
+    private void seal(Segment segment, int position) throws IOException {
+        int entryCount = 0;
+        int directoryBytes = 0;
+        for (KeyIndex versions : activeKeys) {
+            entryCount += versions.size;
+            directoryBytes += 4 + versions.key.length + 8;
+        }
+        int footerBytes = entryCount * ENTRY + directoryBytes;
+        ByteBuffer footer = ByteBuffer.allocate(footerBytes + TRAILER);
+        for (KeyIndex versions : activeKeys) {
+            for (int i = 0; i < versions.size; i++) {
+                footer.putInt(versions.timestamps[i]).putInt(versions.offsets[i]).putInt(versions.lengths[i]);
+            }
+        }
+        int first = 0;
+        for (KeyIndex versions : activeKeys) {
+            footer.putInt(versions.key.length).put(versions.key).putInt(first).putInt(versions.size);
+            first += versions.size;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(footer.array(), 0, footerBytes);
+        footer.putInt(activeKeys.size()).putInt(entryCount).putInt(segment.size)
+                .putInt(segment.size + entryCount * ENTRY).putInt((int) crc.getValue()).putInt(MAGIC);
+        footer.flip();
+        writeFully(segment.channel, footer, segment.size);
+        segment.channel.force(true);
+        segment.entries = segment.channel.map(FileChannel.MapMode.READ_ONLY, segment.size, footerBytes);
+
+        first = 0;
+        for (KeyIndex versions : activeKeys) {        // The active versions become one run per key
+            versions.addRun(position, first, versions.size, versions.timestamps[0],
+                    versions.timestamps[versions.size - 1]);
+            first += versions.size;
+            versions.size = 0;
+            if (versions.timestamps.length > 16) {     // Release a large active index
+                versions.timestamps = new int[4];
+                versions.offsets = new int[4];
+                versions.lengths = new int[4];
+            }
+        }
+        activeKeys.clear();
+        segment.sealed = true;
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Path path = segmentPath(id);
+        Segment segment = new Segment(id, path, FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+        segments.add(segment);
+        return segment;
+    }
+
+    private Path segmentPath(int id) {
+        return directory.resolve(String.format("%s%06d%s", PREFIX, id, SUFFIX));
+    }
+
+    // Record an active-segment version of key
+    private void addToIndex(byte[] keyBytes, String key, int timestamp, int offset, int length) {
+        KeyIndex versions = index.computeIfAbsent(key, k -> new KeyIndex(keyBytes));
+        if (versions.add(timestamp, offset, length)) {
+            activeKeys.add(versions);
+        }
+    }
+
+    // Largest entry in [first, last] of a mapped footer with timestamp <= the given one (entry first
+    // is known to qualify)
+    private static int floorEntry(ByteBuffer entries, int first, int last, int timestamp) {
+        int lo = first;
+        int hi = last;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (entries.getInt(mid * ENTRY) <= timestamp) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("timemap");
+        final int keys = 1_000;
+        final int versions = 200;
+
+        long start = System.nanoTime();
+        try (LogStructuredTimeMap store = new LogStructuredTimeMap(dir, 1 << 20)) {
+            for (int t = 1; t <= versions; t++) {
+                for (int k = 0; k < keys; k++) {
+                    store.set("sensor-" + k, "reading " + k + "@" + t, t * 10);
+                }
+            }
+            System.out.printf("wrote %d versions into %d segments in %d ms%n", keys * versions,
+                    store.segmentCount(), (System.nanoTime() - start) / 1_000_000);
+        }
+
+        start = System.nanoTime();
+        try (LogStructuredTimeMap store = new LogStructuredTimeMap(dir, 1 << 20)) {
+            System.out.printf("reopened from footers in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+            System.out.println("get(sensor-7, 1234) = " + store.get("sensor-7", 1234));  // reading 7@123
+            System.out.println("get(sensor-7, 5) = \"" + store.get("sensor-7", 5) + "\""); // ""
+            long runs = 0;
+            for (KeyIndex index : store.index.values()) runs += index.runs;
+            System.out.printf("index: %d runs x 20 B = %d KB for %d versions (a dense index: %d KB)%n",
+                    runs, runs * 20 / 1024, keys * versions, 16L * keys * versions / 1024);
+        }
+
+        // Open/close cycles without writes must not leave empty segment files behind
+        int files = fileCount(dir);
+        for (int cycle = 0; cycle < 5; cycle++) {
+            new LogStructuredTimeMap(dir, 1 << 20).close();
+        }
+        if (fileCount(dir) != files) {
+            throw new AssertionError("segment files: " + fileCount(dir) + ", want " + files);
+        }
+
+        // Simulate a crash: append two records, then stop without sealing and tear the last record
+        LogStructuredTimeMap crashed = new LogStructuredTimeMap(dir, 1 << 20);
+        crashed.set("sensor-7", "late", 2_500);
+        crashed.set("sensor-7", "torn", 2_600);
+        crashed.sync();
+        for (Segment segment : crashed.segments) {
+            segment.channel.close();
+        }
+        try (FileChannel channel = FileChannel.open(crashed.active.path, StandardOpenOption.WRITE)) {
+            channel.truncate(crashed.active.size - 3);
+        }
+
+        start = System.nanoTime();
+        try (LogStructuredTimeMap store = new LogStructuredTimeMap(dir, 1 << 20)) {
+            System.out.printf("reopened after torn write in %d ms, repaired %d bytes%n",
+                    (System.nanoTime() - start) / 1_000_000, store.repairedBytes());
+            System.out.println("get(sensor-7, 2600) = " + store.get("sensor-7", 2_600)); // late
+            System.out.println("get(sensor-7, 2000) = " + store.get("sensor-7", 2_000)); // reading 7@200
+        }
+        checkAgainstTreeMap(Files.createTempDirectory("timemap-check"));
+    }
+
+    // Random writes (out of order, timestamps rewritten in later segments) into small segments, checked
+    // against TreeMaps before and after reopening
+    private static void checkAgainstTreeMap(Path dir) throws IOException {
+        Random random = new Random(13);
+        Map<String, TreeMap<Integer, String>> expected = new HashMap<>();
+        LogStructuredTimeMap store = new LogStructuredTimeMap(dir, 512);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 3_000; i++) {
+                String key = "k" + random.nextInt(20);
+                int timestamp = random.nextInt(4) == 0 ? random.nextInt(1_000) : round * 1_000 + i / 3;
+                String value = "v" + i + "." + round;
+                store.set(key, value, timestamp);
+                expected.computeIfAbsent(key, k -> new TreeMap<>()).put(timestamp, value);
+            }
+            verify(store, expected, random);
+            store.close();
+            store = new LogStructuredTimeMap(dir, 512);
+            verify(store, expected, random);
+        }
+        store.close();
+    }
+
+    private static void verify(LogStructuredTimeMap store, Map<String, TreeMap<Integer, String>> expected,
+                               Random random) throws IOException {
+        for (int i = 0; i < 5_000; i++) {
+            String key = "k" + random.nextInt(21);               // k20 is never written
+            int timestamp = random.nextInt(3_100) - 50;
+            TreeMap<Integer, String> versions = expected.get(key);
+            Map.Entry<Integer, String> floor = versions == null ? null : versions.floorEntry(timestamp);
+            String want = floor == null ? "" : floor.getValue();
+            String got = store.get(key, timestamp);
+            if (!want.equals(got)) {
+                throw new AssertionError("get(" + key + ", " + timestamp + ") = " + got + ", want " + want);
+            }
+        }
+    }
+
+    private static int fileCount(Path dir) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            int count = 0;
+            for (Path ignored : files) count++;
+            return count;
+        }
+    }
+}
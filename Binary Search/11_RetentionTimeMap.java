@@ -0,0 +1,359 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+public class RetentionTimeMap {
+    // Problem: Time Based Key-Value Store with Retention and Downsampling
+    // In TimeMap every version is kept forever, so memory grows without bound for chatty keys. Add
+    // per-store retention policies, applied by a background compactor while get/set keep running:
+    // - maxVersions: keep only the newest N versions of each key.
+    // - maxAge: drop versions older than (newest timestamp of the key - maxAge).
+    // - downsampling: for versions older than (newest - downsampleAfter), keep only one version per
+    //   time bucket of width bucketWidth (the last one in the bucket).
+    // Each compaction run reports how many versions it removed and how much memory it reclaimed.
+    // DSA Pattern: ConcurrentHashMap + Sorted Parallel Arrays (Copy-on-Write) + Incremental Sweep
+    // Storage is the same as ConcurrentTimeMap: per key, sorted timestamp/value columns with a volatile
+    // published length, so readers never lock. Compacting a key builds a smaller copy of its columns
+    // and publishes it; readers still searching the old copy are unaffected.
+    // Columns and Series below are a deliberate copy of ConcurrentTimeMap's (09_ConcurrentTimeMap.java),
+    // so this file compiles and runs on its own like every other problem file; see that file for the
+    // publication argument. Only compactOnce adds a new writer: it replaces `columns` under the same
+    // per-key lock that set() takes.
+    // Approach:
+    // 1. set/get exactly as in ConcurrentTimeMap (per-key lock for set, lock-free get).
+    // 2. compactOnce(maxKeys): continue a weakly consistent iterator over the keys from where the last
+    //    run stopped and compact at most maxKeys keys, so each run does a bounded amount of work.
+    // 3. Compacting one key, holding only that key's lock:
+    //    - newest = timestamps[n - 1]; mark which versions survive:
+    //      a. maxAge: timestamps[i] >= newest - maxAge.
+    //      b. downsampling: if timestamps[i] < newest - downsampleAfter, keep i only if the next
+    //         version is in a different bucket (floorDiv(ts, bucketWidth)) or is not old.
+    //      c. maxVersions: of the survivors, keep the last maxVersions.
+    //    - If anything was dropped, or the arrays are more than twice the survivors (slack that normal
+    //      doubling never leaves), copy the survivors into columns with 25% room, never larger than
+    //      the old ones, and publish them through the volatile field. A key that only grew by doubling
+    //      is left alone, so repeated sweeps do not copy it again and again.
+    // 4. start(period) schedules compactOnce on a single background thread and hands every report to a
+    //    listener; stop() shuts it down and waits for a running compaction to finish. The wait happens
+    //    outside the store's monitor, because that run needs the monitor to enter compactOnce.
+    // Key Points to Remember:
+    // - The newest version of a key is always kept, so get(key, now) is never affected by retention.
+    // - Keeping the LAST version of each bucket means get() at any bucket boundary still returns the
+    //   exact value that was current at that time.
+    // - Policies are relative to each key's newest timestamp, so no wall clock is needed.
+    // - Compaction blocks set() on one key for one O(t) copy; readers and other keys never wait.
+    // - Reclaimed memory counts array slots freed (4 bytes timestamp + reference); dropped value Strings
+    //   are reclaimed too unless shared elsewhere, so the report is a lower bound.
+    // - Edge cases: key with a single version, all policies disabled (0 means "off"), empty store.
+    // Time Complexity:
+    // - set: O(1) amortized; get: O(log t).
+    // - compactOnce(maxKeys): O(sum of t over the keys visited).
+    // Space Complexity: O(n * t') where t' is the retained versions per key.
+
+    private static final int REFERENCE_BYTES = 4;   // Compressed oops; 8 on heaps over 32 GB
+
+    // Immutable arrays prefix [0, length) plus the published length
+    private static final class Columns {
+        final int[] timestamps;
+        final String[] values;
+        volatile int length;
+
+        Columns(int capacity) {
+            this.timestamps = new int[capacity];
+            this.values = new String[capacity];
+        }
+    }
+
+    // One key's history; the monitor is the per-key write lock
+    private static final class Series {
+        volatile Columns columns = new Columns(4);
+
+        synchronized void set(String value, int timestamp) {
+            Columns c = columns;
+            int n = c.length;
+            if (n > 0 && timestamp <= c.timestamps[n - 1]) {
+                int i = Arrays.binarySearch(c.timestamps, 0, n, timestamp);
+                if (i >= 0) {
+                    c.values[i] = value;
+                    return;
+                }
+                columns = copyWithInsert(c, n, -i - 1, value, timestamp);
+                return;
+            }
+            if (n == c.timestamps.length) {
+                columns = copyWithInsert(c, n, n, value, timestamp);
+                return;
+            }
+            c.timestamps[n] = timestamp;
+            c.values[n] = value;
+            c.length = n + 1;
+        }
+
+        private static Columns copyWithInsert(Columns c, int n, int pos, String value, int timestamp) {
+            Columns copy = new Columns(Math.max(4, n * 2));
+            System.arraycopy(c.timestamps, 0, copy.timestamps, 0, pos);
+            System.arraycopy(c.values, 0, copy.values, 0, pos);
+            copy.timestamps[pos] = timestamp;
+            copy.values[pos] = value;
+            System.arraycopy(c.timestamps, pos, copy.timestamps, pos + 1, n - pos);
+            System.arraycopy(c.values, pos, copy.values, pos + 1, n - pos);
+            copy.length = n + 1;
+            return copy;
+        }
+
+        String get(int timestamp) {
+            Columns c = columns;
+            int n = c.length;
+            if (n == 0) {
+                return "";
+            }
+            int[] ts = c.timestamps;
+            int base = 0;
+            while (n > 1) {
+                int half = n >>> 1;
+                base = ts[base + half] <= timestamp ? base + half : base;
+                n -= half;
+            }
+            return ts[base] <= timestamp ? c.values[base] : "";
+        }
+    }
+
+    // Retention settings; 0 disables a policy
+    public static final class RetentionPolicy {
+        final int maxVersions;       // Newest N versions per key
+        final int maxAge;            // Versions older than newest - maxAge are dropped
+        final int downsampleAfter;   // Versions older than newest - downsampleAfter are downsampled
+        final int bucketWidth;       // One version per bucket of this width in the downsampled range
+
+        public RetentionPolicy(int maxVersions, int maxAge, int downsampleAfter, int bucketWidth) {
+            if (maxVersions < 0 || maxAge < 0 || downsampleAfter < 0 || bucketWidth < 0
+                    || (downsampleAfter > 0) != (bucketWidth > 0)) {
+                throw new IllegalArgumentException("invalid retention policy");
+            }
+            this.maxVersions = maxVersions;
+            this.maxAge = maxAge;
+            this.downsampleAfter = downsampleAfter;
+            this.bucketWidth = bucketWidth;
+        }
+    }
+
+    // Result of one compaction run
+    public static final class CompactionReport {
+        public final int keysVisited;
+        public final long versionsRemoved;
+        public final long bytesReclaimed;
+
+        CompactionReport(int keysVisited, long versionsRemoved, long bytesReclaimed) {
+            this.keysVisited = keysVisited;
+            this.versionsRemoved = versionsRemoved;
+            this.bytesReclaimed = bytesReclaimed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("compacted %d keys: removed %d versions, reclaimed %d bytes",
+                    keysVisited, versionsRemoved, bytesReclaimed);
+        }
+    }
+
+    private final ConcurrentHashMap<String, Series> map;   // Key -> its version history
+    private final RetentionPolicy policy;
+    private Iterator<Series> cursor;                        // Where the incremental sweep resumes
+    private ScheduledExecutorService compactor;             // Background thread, null when stopped
+
+    public RetentionTimeMap(RetentionPolicy policy) {
+        this.map = new ConcurrentHashMap<>();
+        this.policy = policy;
+    }
+
+    // Set operation: Store the value for the key at the given timestamp (per-key lock)
+    public void set(String key, String value, int timestamp) {
+        map.computeIfAbsent(key, k -> new Series()).set(value, timestamp);
+    }
+
+    // Get operation: value at the largest retained timestamp <= given timestamp, never blocks
+    public String get(String key, int timestamp) {
+        Series series = map.get(key);
+        return series == null ? "" : series.get(timestamp);
+    }
+
+    // Apply the policy to at most maxKeys keys, resuming where the previous run stopped
+    public synchronized CompactionReport compactOnce(int maxKeys) {
+        int visited = 0;
+        long removed = 0;
+        long reclaimed = 0;
+        while (visited < maxKeys && visited < map.size()) {    // At most one lap per run
+            if (cursor == null || !cursor.hasNext()) {
+                cursor = map.values().iterator();
+                if (!cursor.hasNext()) {
+                    break;
+                }
+            }
+            Series series = cursor.next();
+            visited++;
+            synchronized (series) {
+                Columns old = series.columns;
+                Columns compacted = compact(old);
+                if (compacted != old) {
+                    removed += old.length - compacted.length;
+                    reclaimed += (long) (old.timestamps.length - compacted.timestamps.length)
+                            * (Integer.BYTES + REFERENCE_BYTES);
+                    series.columns = compacted;
+                }
+            }
+        }
+        return new CompactionReport(visited, removed, reclaimed);
+    }
+
+    // Run compactOnce(keysPerRun) every periodMillis on a background thread
+    public synchronized void start(long periodMillis, int keysPerRun, Consumer<CompactionReport> listener) {
+        if (compactor != null) {
+            throw new IllegalStateException("compactor already running");
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "timemap-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> listener.accept(compactOnce(keysPerRun)),
+                periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Stop the background compactor; waits for a run in progress without holding the monitor
+    public void stop() throws InterruptedException {
+        ScheduledExecutorService stopping;
+        synchronized (this) {
+            stopping = compactor;
+            compactor = null;
+            if (stopping == null) {
+                return;
+            }
+            stopping.shutdown();
+        }
+        stopping.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    // Survivors of the policy in new right-sized columns, or the same columns if nothing changes
+    private Columns compact(Columns c) {
+        int n = c.length;
+        if (n <= 1) {
+            return c;
+        }
+        int[] ts = c.timestamps;
+        long newest = ts[n - 1];
+        boolean[] keep = new boolean[n];
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            boolean survives = policy.maxAge == 0 || ts[i] >= newest - policy.maxAge;
+            if (survives && policy.bucketWidth > 0 && ts[i] < newest - policy.downsampleAfter) {
+                // Old enough to downsample: keep only the last version of its bucket
+                boolean nextIsOld = ts[i + 1] < newest - policy.downsampleAfter;
+                survives = !nextIsOld || Math.floorDiv(ts[i], policy.bucketWidth)
+                        != Math.floorDiv(ts[i + 1], policy.bucketWidth);
+            }
+            keep[i] = survives;
+            if (survives) {
+                kept++;
+            }
+        }
+        // maxVersions: drop the oldest survivors beyond the limit
+        for (int i = 0; policy.maxVersions > 0 && kept > policy.maxVersions; i++) {
+            if (keep[i]) {
+                keep[i] = false;
+                kept--;
+            }
+        }
+        if (kept == n && ts.length <= 2 * Math.max(4, kept)) {
+            return c;                                        // Nothing dropped, no more slack than doubling
+        }
+        int capacity = Math.min(ts.length, Math.max(4, kept + (kept >>> 2)));   // 25% room, never grows
+        Columns copy = new Columns(capacity);
+        for (int i = 0, j = 0; i < n; i++) {
+            if (keep[i]) {
+                copy.timestamps[j] = ts[i];
+                copy.values[j] = c.values[i];
+                j++;
+            }
+        }
+        copy.length = kept;
+        return copy;
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Keep the newest 1000 versions, at most 100_000 ticks of history, and one version per 100
+        // ticks for anything older than 10_000 ticks
+        RetentionTimeMap timeMap = new RetentionTimeMap(new RetentionPolicy(1_000, 100_000, 10_000, 100));
+        timeMap.start(20, 64, report -> {
+            if (report.versionsRemoved > 0) System.out.println(report);
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        Future<?> writer = pool.submit(() -> {
+            for (int t = 1; t <= 200_000; t++) {
+                timeMap.set("key" + (t % 16), "v" + t, t);   // 16 chatty keys, one version per tick each
+            }
+            return null;
+        });
+        Future<Long> reader = pool.submit(() -> {
+            long reads = 0;
+            while (!writer.isDone()) {
+                timeMap.get("key" + (reads % 16), ThreadLocalRandom.current().nextInt(200_000));
+                reads++;
+            }
+            return reads;
+        });
+        writer.get();
+        System.out.println("concurrent reads during compaction: " + reader.get());
+        timeMap.stop();
+        System.out.println("final pass: " + timeMap.compactOnce(Integer.MAX_VALUE));
+        System.out.println("get(key0, 200000) = " + timeMap.get("key0", 200_000));   // newest is kept
+        pool.shutdown();
+
+        // Dropping a few versions never grows the arrays (16 slots, 15 kept), and a key that only grew
+        // by doubling is not copied again on every sweep
+        RetentionTimeMap sweeps = new RetentionTimeMap(new RetentionPolicy(15, 0, 0, 0));
+        for (int t = 1; t <= 16; t++) sweeps.set("full", "v" + t, t);
+        for (int t = 1; t <= 9; t++) sweeps.set("doubled", "v" + t, t);   // 9 versions in 16 slots
+        CompactionReport first = sweeps.compactOnce(Integer.MAX_VALUE);
+        Columns doubled = sweeps.map.get("doubled").columns;
+        CompactionReport second = sweeps.compactOnce(Integer.MAX_VALUE);
+        if (first.versionsRemoved != 1 || first.bytesReclaimed != 0 || second.versionsRemoved != 0
+                || second.bytesReclaimed != 0 || sweeps.map.get("doubled").columns != doubled
+                || sweeps.map.get("full").columns.timestamps.length != 16) {
+            throw new AssertionError("sweeps: " + first + " then " + second);
+        }
+        System.out.println("small drops keep the array size, doubling slack is not recopied: " + first);
+
+        // stop() must not wait while holding the monitor a pending compaction run needs: a holder
+        // thread keeps the monitor long enough for a run to queue on it, then stop() competes with it
+        long slowest = 0;
+        for (int i = 0; i < 20; i++) {
+            timeMap.start(5, Integer.MAX_VALUE, report -> { });
+            CountDownLatch held = new CountDownLatch(1);
+            Thread holder = new Thread(() -> {
+                synchronized (timeMap) {
+                    held.countDown();
+                    try {
+                        Thread.sleep(20);           // The run due at 5 ms blocks on the monitor
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            holder.start();
+            held.await();
+            if (i % 2 == 1) {
+                Thread.sleep(10);                   // Odd rounds: queue behind the run instead of ahead
+            }
+            long start = System.nanoTime();
+            timeMap.stop();                         // Competes with the queued run for the monitor
+            slowest = Math.max(slowest, System.nanoTime() - start);
+            holder.join();
+        }
+        if (slowest > TimeUnit.SECONDS.toNanos(1)) {
+            throw new AssertionError("stop() took " + slowest / 1_000_000 + " ms");
+        }
+        System.out.println("20 stop() calls racing a queued compaction run: slowest "
+                + slowest / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,403 @@
+import java.util.*;
+
+public class RangeScanTimeMap {
+    // Problem: Time Based Key-Value Store with Range Scans and Batched Reads
+    // TimeMap only offers get(key, timestamp), so a dashboard that needs many values makes thousands of
+    // separate calls per refresh. Add:
+    // - scan(key, from, to): all versions with from <= timestamp <= to, as a lazy cursor over the stored
+    //   columns (no copying of versions).
+    // - multiGet(batch, timestamp): the floor value of many keys at one timestamp, in one call. The key
+    //   list is prepared once (prepare(keys[])) and reused by every refresh of the dashboard.
+    // - getAsOf(keys[], timestamps[]): floor value of keys[i] at timestamps[i] for every i, i.e. the
+    //   lookup side of a time-travel (as-of) join.
+    // DSA Pattern: HashMap + Sorted Parallel Arrays + Binary Search / Galloping Search
+    // Storage is columnar as in ColumnarTimeMap (int[] timestamps + String[] values per key, sorted).
+    // Approach:
+    // 1. scan(key, from, to): two binary searches give the index range [lo, hi); the returned cursor
+    //    walks the key's own arrays between them. advance() moves to the next version, timestamp()
+    //    and value() read it in place. An out-of-order write to the key during iteration shifts the
+    //    arrays, so it is detected with a modification count (ConcurrentModificationException).
+    // 2. Batched reads reuse work between queries on the same key: the key's Series is resolved once,
+    //    and the next floor search gallops from the index of the key's previous answer (the "hint"):
+    //    check hint, hint +- 1, +- 2, +- 4, ... until the floor is bracketed, then binary search inside
+    //    the bracket. Hints never live in the shared Series, so concurrent readers do not write to the
+    //    map.
+    //    - prepare(keys) returns a KeyBatch owned by the caller: the Series of every key (resolved once,
+    //      Series objects are never replaced) and one hint per key. multiGet(batch, timestamp) does no
+    //      hashing at all, and because dashboard refreshes move forward in time, each key's answer is
+    //      a short gallop from the previous refresh's answer.
+    //    - getAsOf(keys, timestamps): joins usually ask for the same key at increasing times. The
+    //      Series and hint of the current run of identical keys are local variables, so k queries per
+    //      key spread over t versions cost O(k log(t / k)) instead of O(k log t).
+    // 3. main() compares each batched form against a loop of single get calls. Both sides are
+    //    separate methods (each JIT-compiled on its own) and alternate which one runs first.
+    // Key Points to Remember:
+    // - The cursor is allocation-free per version: no Map.Entry or copy per element.
+    // - Galloping is never worse than ~2x a plain binary search, and much better for clustered queries.
+    // - A hint is only a starting point; galloping from any index gives the same answer as floor.
+    // - scan(key, Integer.MIN_VALUE, to) starts at index 0; from - 1 would overflow.
+    // - Batched calls return "" for missing keys or timestamps before the first version, like get.
+    // - A KeyBatch holds per-caller state: one per dashboard (or thread), never shared between threads.
+    // - Edge cases: empty range (from > to or no versions inside), unknown key (looked up again on each
+    //   multiGet until it exists), duplicate keys in a batch.
+    // Time Complexity:
+    // - set: O(1) amortized for in-order timestamps, O(t) for out-of-order.
+    // - get: O(log t); scan: O(log t) to open + O(1) per version.
+    // - prepare: O(m) hash lookups; multiGet: O(m log d) for m keys, where d is the distance of each
+    //   key's answer from its previous one.
+    // - getAsOf: O(m log d) for m lookups, where d is the distance from the previous answer of the
+    //   same run (O(log t) for the first query of each run).
+    // Space Complexity: O(n * t) for storage; batched calls allocate only their result array.
+
+    // One key's history
+    private static final class Series {
+        int[] timestamps = new int[4];
+        String[] values = new String[4];
+        int size;
+        int modCount;       // Bumped when existing slots move (out-of-order insert)
+
+        void set(String value, int timestamp) {
+            int pos = size;
+            if (size > 0 && timestamp <= timestamps[size - 1]) {
+                pos = Arrays.binarySearch(timestamps, 0, size, timestamp);
+                if (pos >= 0) {
+                    values[pos] = value;
+                    return;
+                }
+                pos = -pos - 1;
+                modCount++;
+            }
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(timestamps, pos, timestamps, pos + 1, size - pos);
+            System.arraycopy(values, pos, values, pos + 1, size - pos);
+            timestamps[pos] = timestamp;
+            values[pos] = value;
+            size++;
+        }
+
+        // Index of the largest timestamp <= t, or -1
+        int floor(int t) {
+            if (size == 0) {
+                return -1;
+            }
+            int[] ts = timestamps;
+            int base = 0;
+            int n = size;
+            while (n > 1) {
+                int half = n >>> 1;
+                base = ts[base + half] <= t ? base + half : base;
+                n -= half;
+            }
+            return ts[base] <= t ? base : -1;
+        }
+
+        // Same result as floor(t), found by galloping outward from a previous answer
+        int floorFrom(int t, int from) {
+            if (size == 0) {
+                return -1;
+            }
+            int[] ts = timestamps;
+            int i = Math.min(Math.max(from, 0), size - 1);
+            int lo;
+            int hi;                                     // Invariant: ts[lo] <= t < ts[hi] (virtual ends)
+            if (ts[i] <= t) {
+                lo = i;
+                int step = 1;
+                hi = i + 1;
+                while (hi < size && ts[hi] <= t) {
+                    lo = hi;
+                    step <<= 1;
+                    hi = lo + step;
+                }
+                hi = Math.min(hi, size);
+            } else {
+                hi = i;
+                int step = 1;
+                lo = i - 1;
+                while (lo >= 0 && ts[lo] > t) {
+                    hi = lo;
+                    step <<= 1;
+                    lo = hi - step;
+                }
+                if (lo < 0) {
+                    if (ts[0] > t) {
+                        return -1;
+                    }
+                    lo = 0;
+                }
+            }
+            while (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                if (ts[mid] <= t) {
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    // Lazy cursor over the versions of one key inside [from, to]
+    public static final class VersionCursor {
+        private final Series series;
+        private final int expectedModCount;
+        private final int end;          // Exclusive end index
+        private int index;              // Current index, starts one before the first version
+
+        private VersionCursor(Series series, int start, int end) {
+            this.series = series;
+            this.expectedModCount = series == null ? 0 : series.modCount;
+            this.index = start - 1;
+            this.end = end;
+        }
+
+        // Move to the next version; false when the range is exhausted
+        public boolean advance() {
+            if (series != null && series.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (index + 1 >= end) {
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        public int timestamp() {
+            return series.timestamps[index];
+        }
+
+        public String value() {
+            return series.values[index];
+        }
+    }
+
+    // Prepared key list for repeated multiGet calls; owned by one caller
+    public static final class KeyBatch {
+        private final String[] keys;
+        private final Series[] series;  // Resolved Series of keys[i], or null while the key is unknown
+        private final int[] hints;      // Index of the previous answer for keys[i], or -1
+
+        private KeyBatch(String[] keys, Series[] series) {
+            this.keys = keys.clone();
+            this.series = series;
+            this.hints = new int[keys.length];
+            Arrays.fill(hints, -1);
+        }
+    }
+
+    private final Map<String, Series> map;   // Key -> its version history
+
+    public RangeScanTimeMap() {
+        map = new HashMap<>();
+    }
+
+    // Set operation: Store the value for the key at the given timestamp
+    public void set(String key, String value, int timestamp) {
+        map.computeIfAbsent(key, k -> new Series()).set(value, timestamp);
+    }
+
+    // Get operation: value at the largest timestamp <= given timestamp, or ""
+    public String get(String key, int timestamp) {
+        Series series = map.get(key);
+        int i = series == null ? -1 : series.floor(timestamp);
+        return i < 0 ? "" : series.values[i];
+    }
+
+    // All versions of key with from <= timestamp <= to, oldest first, read in place
+    public VersionCursor scan(String key, int from, int to) {
+        Series series = map.get(key);
+        if (series == null || from > to) {
+            return new VersionCursor(null, 0, 0);
+        }
+        int start = from == Integer.MIN_VALUE ? 0 : series.floor(from - 1) + 1;   // First index >= from
+        int end = series.floor(to) + 1;             // One past the last index with timestamp <= to
+        return new VersionCursor(series, start, end);
+    }
+
+    // Resolve the keys once for repeated multiGet calls
+    public KeyBatch prepare(String[] keys) {
+        Series[] series = new Series[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            series[i] = map.get(keys[i]);
+        }
+        return new KeyBatch(keys, series);
+    }
+
+    // Floor value of every key of the batch at one timestamp, galloping from each key's previous answer
+    public String[] multiGet(KeyBatch batch, int timestamp) {
+        String[] result = new String[batch.keys.length];
+        for (int i = 0; i < result.length; i++) {
+            Series series = batch.series[i];
+            if (series == null && (series = map.get(batch.keys[i])) != null) {
+                batch.series[i] = series;           // Key created since prepare
+            }
+            if (series == null) {
+                result[i] = "";
+                continue;
+            }
+            int hint = batch.hints[i];
+            int index = hint < 0 ? series.floor(timestamp) : series.floorFrom(timestamp, hint);
+            if (index >= 0) {
+                batch.hints[i] = index;
+            }
+            result[i] = index < 0 ? "" : series.values[index];
+        }
+        return result;
+    }
+
+    // Floor value of keys[i] at timestamps[i], galloping from each key's previous answer
+    public String[] getAsOf(String[] keys, int[] timestamps) {
+        if (keys.length != timestamps.length) {
+            throw new IllegalArgumentException("keys and timestamps must have the same length");
+        }
+        String[] result = new String[keys.length];
+        Series series = null;
+        String previous = null;
+        int hint = -1;                              // Last answer in the current run of keys[i], or -1
+        for (int i = 0; i < keys.length; i++) {
+            if (!keys[i].equals(previous)) {
+                series = map.get(keys[i]);
+                previous = keys[i];
+                hint = -1;
+            }
+            if (series == null) {
+                result[i] = "";
+                continue;
+            }
+            int index = hint < 0 ? series.floor(timestamps[i]) : series.floorFrom(timestamps[i], hint);
+            if (index >= 0) {
+                hint = index;
+            }
+            result[i] = index < 0 ? "" : series.values[index];
+        }
+        return result;
+    }
+
+    // Benchmark: batched reads vs. the equivalent loop of single get calls
+    public static void main(String[] args) {
+        final int keys = 2_000;
+        final int versions = 2_000;
+        RangeScanTimeMap timeMap = new RangeScanTimeMap();
+        String[] names = new String[keys];
+        for (int k = 0; k < keys; k++) {
+            names[k] = "metric." + k;
+        }
+        for (int t = 1; t <= versions; t++) {
+            for (int k = 0; k < keys; k++) {
+                timeMap.set(names[k], "v" + t, t * 10);
+            }
+        }
+
+        // Range scan
+        VersionCursor cursor = timeMap.scan("metric.7", 100, 150);
+        StringBuilder versionsSeen = new StringBuilder();
+        while (cursor.advance()) {
+            versionsSeen.append(cursor.timestamp()).append('=').append(cursor.value()).append(' ');
+        }
+        System.out.println("scan(metric.7, 100, 150): " + versionsSeen);   // 100=v10 ... 150=v15
+        cursor = timeMap.scan("metric.7", Integer.MIN_VALUE, 25);
+        int seen = 0;
+        while (cursor.advance()) seen++;
+        if (seen != 2) {                              // 10=v1 and 20=v2
+            throw new AssertionError("scan(metric.7, MIN_VALUE, 25) returned " + seen + " versions, want 2");
+        }
+
+        // A key unknown at prepare time is picked up once it exists
+        RangeScanTimeMap small = new RangeScanTimeMap();
+        KeyBatch later = small.prepare(new String[] {"late"});
+        small.set("late", "x", 5);
+        if (!small.multiGet(later, 7)[0].equals("x")) {
+            throw new AssertionError("multiGet missed a key created after prepare");
+        }
+
+        // Time-travel join: 50 events per key at increasing times, grouped by key
+        int[] joinTimes = new int[keys * 50];
+        String[] joinKeys = new String[keys * 50];
+        Random random = new Random(3);
+        for (int k = 0, i = 0; k < keys; k++) {
+            int t = random.nextInt(1_000);
+            for (int e = 0; e < 50; e++, i++) {
+                t += random.nextInt(400);
+                joinKeys[i] = names[k];
+                joinTimes[i] = t;
+            }
+        }
+
+        // Dashboard: refresh every key once per simulated second, moving forward in time.
+        // Rounds alternate which side runs first; the first 20 rounds warm up the JIT, and the fastest of
+        // the remaining 40 rounds is reported for each side (the least disturbed by GC and other load).
+        KeyBatch dashboard = timeMap.prepare(names);
+        long loopNs = Long.MAX_VALUE, batchNs = Long.MAX_VALUE;
+        for (int round = 0; round < 60; round++) {
+            int timestamp = 1_000 + round * 300;
+            long loopTime = 0, batchTime = 0;
+            String[] loop = null, batch = null;
+            for (int side = 0; side < 2; side++) {
+                long start = System.nanoTime();
+                if ((side + round) % 2 == 0) {
+                    loop = getLoop(timeMap, names, timestamp);
+                    loopTime = System.nanoTime() - start;
+                } else {
+                    batch = timeMap.multiGet(dashboard, timestamp);
+                    batchTime = System.nanoTime() - start;
+                }
+            }
+            check(loop, batch, "multiGet at " + timestamp);
+            if (round >= 20) {
+                loopNs = Math.min(loopNs, loopTime);
+                batchNs = Math.min(batchNs, batchTime);
+            }
+        }
+        System.out.printf("multiGet: %.1f ns/key vs get loop %.1f ns/key%n",
+                (double) batchNs / keys, (double) loopNs / keys);
+
+        loopNs = Long.MAX_VALUE;
+        batchNs = Long.MAX_VALUE;
+        for (int round = 0; round < 60; round++) {
+            long loopTime = 0, batchTime = 0;
+            String[] loop = null, batch = null;
+            for (int side = 0; side < 2; side++) {
+                long start = System.nanoTime();
+                if ((side + round) % 2 == 0) {
+                    loop = getLoop(timeMap, joinKeys, joinTimes);
+                    loopTime = System.nanoTime() - start;
+                } else {
+                    batch = timeMap.getAsOf(joinKeys, joinTimes);
+                    batchTime = System.nanoTime() - start;
+                }
+            }
+            check(loop, batch, "getAsOf");
+            if (round >= 20) {
+                loopNs = Math.min(loopNs, loopTime);
+                batchNs = Math.min(batchNs, batchTime);
+            }
+        }
+        System.out.printf("getAsOf:  %.1f ns/pair vs get loop %.1f ns/pair%n",
+                (double) batchNs / joinKeys.length, (double) loopNs / joinKeys.length);
+        System.out.println("batched results match single gets");
+    }
+
+    // The equivalent loops of single get calls, kept out of main() so each is compiled on its own
+    private static String[] getLoop(RangeScanTimeMap timeMap, String[] keys, int timestamp) {
+        String[] result = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) result[i] = timeMap.get(keys[i], timestamp);
+        return result;
+    }
+
+    private static String[] getLoop(RangeScanTimeMap timeMap, String[] keys, int[] timestamps) {
+        String[] result = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) result[i] = timeMap.get(keys[i], timestamps[i]);
+        return result;
+    }
+
+    private static void check(String[] expected, String[] actual, String what) {
+        if (!Arrays.equals(expected, actual)) {
+            throw new AssertionError(what + " differs from single gets");
+        }
+    }
+}
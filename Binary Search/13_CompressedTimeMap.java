@@ -0,0 +1,387 @@
+import java.util.*;
+
+public class CompressedTimeMap {
+    // Problem: Time Based Key-Value Store with Compressed Timestamps
+    // Same operations as TimeMap (set, get = floor lookup). In TimeMap each version costs a TreeMap
+    // entry plus a boxed Integer (~56 bytes) just to remember its timestamp, yet the timestamps of one
+    // key are increasing and usually evenly spaced (a sample every 10 ticks, say). Store them the way
+    // Gorilla stores time series: in sealed blocks encoded with delta-of-delta and bit packing, so a
+    // regular series costs about one bit per timestamp, while get stays O(log n).
+    // DSA Pattern: HashMap + Bit-Packed Blocks with a Skip Header (Binary Search + Short Linear Decode)
+    // Approach:
+    // 1. Per key, versions are numbered 0..size-1 in timestamp order. Values stay in a String[] column
+    //    indexed by version number; only the timestamps are compressed.
+    // 2. New timestamps go to a small plain int[] tail. When the tail holds BLOCK timestamps it is
+    //    sealed: the first timestamp and the block's bit offset go into the skip header
+    //    (blockFirst[], blockOffset[]), and the remaining BLOCK - 1 timestamps are written to the key's
+    //    bit stream as delta-of-delta codes (delta = t[i] - t[i-1], dod = delta - previous delta,
+    //    previous delta starts at 0 in every block):
+    //      '0'                    dod == 0          (regular spacing: 1 bit)
+    //      '10'   + 7 bits        dod in [-63, 64]
+    //      '110'  + 9 bits        dod in [-255, 256]
+    //      '1110' + 12 bits       dod in [-2047, 2048]
+    //      '1111' + 32 bits       the raw delta (anything else)
+    // 3. get(key, timestamp):
+    //    - timestamp >= tail[0]: floor search in the plain tail.
+    //    - Otherwise binary search blockFirst[] for the block that holds the floor, then decode only
+    //      that block from its bit offset, stopping at the first timestamp > query.
+    // 4. set with timestamp == last overwrites the last value; an out-of-order timestamp moves the key
+    //    to a TreeMap fallback, as in ColumnarTimeMap.
+    // 5. main() compares memory and get latency with the TreeMap-based TimeMap
+    //    (compile together with 04_TimeBasedKeyValueStore.java).
+    // Key Points to Remember:
+    // - Every block restarts decoding from its header, so blocks are independent: a get never
+    //   decodes more than BLOCK - 1 codes.
+    // - Decoding reads 64-bit windows; a run of '0' codes (same delta) is skipped with
+    //   numberOfLeadingZeros and one division, so regular blocks decode in a few steps.
+    // - Sealed blocks are immutable, which is why out-of-order writes need the fallback.
+    // - Deltas of increasing ints fit in 32 unsigned bits, so the escape code can store the raw delta.
+    // - Header cost is 8 bytes per BLOCK timestamps (0.125 bytes/version for BLOCK = 64).
+    // - Edge cases: query before the first version, query inside the tail, jittered spacing, a key with
+    //   fewer than BLOCK versions (nothing sealed yet).
+    // Time Complexity:
+    // - set: O(1) amortized (sealing costs O(BLOCK) once per BLOCK appends).
+    // - get: O(log(t / BLOCK) + BLOCK), i.e. O(log t) with a constant-size decode.
+    // Space Complexity: O(n * t)
+    // - Timestamps: ~1 bit each for regular series plus the header; values: one reference each.
+
+    private static final int BLOCK = 64;      // Timestamps per sealed block
+
+    // One key's history: compressed timestamp blocks + plain tail, values column
+    private static final class Series {
+        int[] blockFirst = new int[4];        // First timestamp of each sealed block
+        int[] blockOffset = new int[4];       // Bit offset of each block's codes in bits
+        int blocks;                           // Number of sealed blocks
+        long[] bits = new long[4];            // Bit stream of all sealed blocks, MSB first
+        int bitLength;                        // Bits used in the stream
+        int[] tail = new int[4];              // Timestamps not sealed yet
+        int tailSize;
+        String[] values = new String[4];      // values[i] belongs to version i
+        int size;                             // Number of versions
+        int last;                             // Newest timestamp (valid when size > 0)
+        TreeMap<Integer, String> fallback;    // Non-null once an out-of-order write happened
+
+        void set(String value, int timestamp) {
+            if (fallback != null) {
+                fallback.put(timestamp, value);
+                return;
+            }
+            if (size > 0 && timestamp <= last) {
+                if (timestamp == last) {
+                    values[size - 1] = value;   // Same timestamp: overwrite in place
+                    return;
+                }
+                convertToTree();
+                fallback.put(timestamp, value);
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            if (tailSize == tail.length) {
+                tail = Arrays.copyOf(tail, Math.min(tailSize * 2, BLOCK));
+            }
+            tail[tailSize++] = timestamp;
+            last = timestamp;
+            if (tailSize == BLOCK) {
+                seal();
+            }
+        }
+
+        String get(int timestamp) {
+            if (fallback != null) {
+                Map.Entry<Integer, String> entry = fallback.floorEntry(timestamp);
+                return entry == null ? "" : entry.getValue();
+            }
+            int i = floor(timestamp);
+            return i < 0 ? "" : values[i];
+        }
+
+        // Version number of the largest timestamp <= t, or -1
+        int floor(int t) {
+            if (tailSize > 0 && t >= tail[0]) {
+                int base = 0;
+                int n = tailSize;
+                while (n > 1) {
+                    int half = n >>> 1;
+                    base = tail[base + half] <= t ? base + half : base;
+                    n -= half;
+                }
+                return blocks * BLOCK + base;
+            }
+            if (blocks == 0 || t < blockFirst[0]) {
+                return -1;
+            }
+            int base = 0;                       // Last block whose first timestamp is <= t
+            int n = blocks;
+            while (n > 1) {
+                int half = n >>> 1;
+                base = blockFirst[base + half] <= t ? base + half : base;
+                n -= half;
+            }
+            return base * BLOCK + floorInBlock(base, t);
+        }
+
+        // Position inside block b of the largest timestamp <= t (blockFirst[b] <= t)
+        private int floorInBlock(int b, int t) {
+            return decode(b, t, null);
+        }
+
+        // Decode block b up to the last timestamp <= t, copying timestamps to out if non-null;
+        // returns the position of that last timestamp
+        private int decode(int b, long t, int[] out) {
+            long current = blockFirst[b];
+            long delta = 0;
+            int pos = blockOffset[b];
+            if (out != null) {
+                out[0] = (int) current;
+            }
+            int j = 1;
+            while (j < BLOCK) {
+                long window = peek(pos);                   // Next 64 bits of the stream
+                if (window >= 0) {
+                    // Leading zeros are a run of dod == 0 codes: the same delta repeats, so skip the
+                    // whole run with one division instead of decoding it code by code
+                    int run = Math.min(Long.numberOfLeadingZeros(window), BLOCK - j);
+                    long fits = (t - current) / delta;     // delta > 0 once past the first code
+                    if (fits < run) {
+                        return j - 1 + (int) fits;
+                    }
+                    for (int k = 0; out != null && k < run; k++) {
+                        out[j + k] = (int) (current + (k + 1) * delta);
+                    }
+                    current += run * delta;
+                    j += run;
+                    pos += run;
+                    continue;
+                }
+                if ((window << 1) >= 0) {                  // '10' + 7 bits
+                    delta += (window >>> 55 & 0x7F) - 63;
+                    pos += 9;
+                } else if ((window << 2) >= 0) {           // '110' + 9 bits
+                    delta += (window >>> 52 & 0x1FF) - 255;
+                    pos += 12;
+                } else if ((window << 3) >= 0) {           // '1110' + 12 bits
+                    delta += (window >>> 48 & 0xFFF) - 2047;
+                    pos += 16;
+                } else {                                   // '1111' + 32-bit raw delta
+                    delta = window >>> 28 & 0xFFFFFFFFL;
+                    pos += 36;
+                }
+                if (current + delta > t) {
+                    return j - 1;
+                }
+                current += delta;
+                if (out != null) {
+                    out[j] = (int) current;
+                }
+                j++;
+            }
+            return BLOCK - 1;
+        }
+
+        // Encode the full tail as one block
+        private void seal() {
+            if (blocks == blockFirst.length) {
+                blockFirst = Arrays.copyOf(blockFirst, blocks * 2);
+                blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+            }
+            blockFirst[blocks] = tail[0];
+            blockOffset[blocks] = bitLength;
+            blocks++;
+            long previousDelta = 0;
+            for (int i = 1; i < BLOCK; i++) {
+                long delta = (long) tail[i] - tail[i - 1];
+                long dod = delta - previousDelta;
+                if (dod == 0) {
+                    writeBits(0b0, 1);
+                } else if (dod >= -63 && dod <= 64) {
+                    writeBits(0b10, 2);
+                    writeBits(dod + 63, 7);
+                } else if (dod >= -255 && dod <= 256) {
+                    writeBits(0b110, 3);
+                    writeBits(dod + 255, 9);
+                } else if (dod >= -2047 && dod <= 2048) {
+                    writeBits(0b1110, 4);
+                    writeBits(dod + 2047, 12);
+                } else {
+                    writeBits(0b1111, 4);
+                    writeBits(delta, 32);
+                }
+                previousDelta = delta;
+            }
+            tailSize = 0;
+        }
+
+        private void writeBits(long value, int n) {
+            int needed = (bitLength + n + 63) >>> 6;
+            if (needed > bits.length) {
+                bits = Arrays.copyOf(bits, Math.max(needed, bits.length * 2));
+            }
+            int word = bitLength >>> 6;
+            int offset = bitLength & 63;
+            if (offset + n <= 64) {
+                bits[word] |= value << (64 - offset - n);
+            } else {
+                bits[word] |= value >>> (offset + n - 64);
+                bits[word + 1] |= value << (128 - offset - n);
+            }
+            bitLength += n;
+        }
+
+        // 64 bits of the stream starting at bit pos, zero-padded past the end
+        private long peek(int pos) {
+            int word = pos >>> 6;
+            int offset = pos & 63;
+            long window = bits[word] << offset;
+            if (offset != 0 && word + 1 < bits.length) {
+                window |= bits[word + 1] >>> (64 - offset);
+            }
+            return window;
+        }
+
+        // Decode every block and the tail into a TreeMap, then drop the compressed form
+        private void convertToTree() {
+            fallback = new TreeMap<>();
+            int[] block = new int[BLOCK];
+            for (int b = 0; b < blocks; b++) {
+                decode(b, Long.MAX_VALUE, block);
+                for (int j = 0; j < BLOCK; j++) {
+                    fallback.put(block[j], values[b * BLOCK + j]);
+                }
+            }
+            for (int i = 0; i < tailSize; i++) {
+                fallback.put(tail[i], values[blocks * BLOCK + i]);
+            }
+            blockFirst = blockOffset = tail = null;
+            bits = null;
+            values = null;
+            blocks = bitLength = tailSize = size = 0;
+        }
+
+        // Bytes used by the timestamp representation (arrays with headers, excluding values)
+        long timestampBytes() {
+            if (fallback != null) {
+                return (long) fallback.size() * 56;         // TreeMap entry + boxed Integer
+            }
+            return 16L * 3 + 4L * (blockFirst.length + blockOffset.length + tail.length) + 8L * bits.length + 16;
+        }
+    }
+
+    private final Map<String, Series> map;   // Key -> its version history
+
+    // Constructor: Initialize the HashMap
+    public CompressedTimeMap() {
+        map = new HashMap<>();
+    }
+
+    // Set operation: Store the value for the key at the given timestamp
+    public void set(String key, String value, int timestamp) {
+        map.computeIfAbsent(key, k -> new Series()).set(value, timestamp);
+    }
+
+    // Get operation: Retrieve the value for the key at the largest timestamp <= given timestamp
+    public String get(String key, int timestamp) {
+        Series series = map.get(key);
+        return series == null ? "" : series.get(timestamp);
+    }
+
+    // Approximate heap bytes spent on timestamps across all keys
+    public long timestampBytes() {
+        long total = 0;
+        for (Series series : map.values()) {
+            total += series.timestampBytes();
+        }
+        return total;
+    }
+
+    // Benchmark: memory and get latency against the TreeMap-based TimeMap, plus a correctness check
+    public static void main(String[] args) {
+        compareWithTimeMap(0);      // Perfectly regular spacing
+        compareWithTimeMap(3);      // +-3 ticks of jitter around a 10-tick period
+
+        // Out-of-order write falls back to a TreeMap without losing sealed versions
+        CompressedTimeMap timeMap = new CompressedTimeMap();
+        for (int t = 1; t <= 200; t++) timeMap.set("k", "v" + t, t * 7);
+        timeMap.set("k", "late", 701);
+        System.out.println("after fallback: get(k, 700) = " + timeMap.get("k", 700)
+                + ", get(k, 701) = " + timeMap.get("k", 701) + ", get(k, 1400) = " + timeMap.get("k", 1400));
+    }
+
+    // One store of each kind with the same keys and timestamps; prints memory, latency and mismatches
+    private static void compareWithTimeMap(int jitter) {
+        final int keys = 1_000;
+        final int versions = 2_000;
+        final int reads = 2_000_000;
+        String[] names = new String[keys];
+        for (int k = 0; k < keys; k++) {
+            names[k] = "key" + k;
+        }
+        String value = "v";
+
+        int[][] times = new int[keys][versions];
+        Random random = new Random(jitter);
+        for (int k = 0; k < keys; k++) {
+            int t = random.nextInt(100);
+            for (int v = 0; v < versions; v++) {
+                t += 10 + (jitter == 0 ? 0 : random.nextInt(2 * jitter + 1) - jitter);
+                times[k][v] = t;
+            }
+        }
+
+        long before = usedMemory();
+        TimeMap tree = new TimeMap();
+        for (int v = 0; v < versions; v++) {
+            for (int k = 0; k < keys; k++) tree.set(names[k], value, times[k][v]);
+        }
+        long treeBytes = usedMemory() - before;
+
+        before = usedMemory();
+        CompressedTimeMap compressed = new CompressedTimeMap();
+        for (int v = 0; v < versions; v++) {
+            for (int k = 0; k < keys; k++) compressed.set(names[k], value, times[k][v]);
+        }
+        long compressedBytes = usedMemory() - before;
+
+        long treeNs = 0;
+        long compressedNs = 0;
+        int mismatches = 0;
+        for (int round = 0; round < 3; round++) {     // First round warms up the JIT
+            random = new Random(round);
+            int[] queryKey = new int[reads];
+            int[] queryTime = new int[reads];
+            for (int i = 0; i < reads; i++) {
+                queryKey[i] = random.nextInt(keys);
+                queryTime[i] = times[queryKey[i]][random.nextInt(versions)] + random.nextInt(21) - 10;
+            }
+            String[] expected = new String[reads];
+            long start = System.nanoTime();
+            for (int i = 0; i < reads; i++) expected[i] = tree.get(names[queryKey[i]], queryTime[i]);
+            long treeTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < reads; i++) {
+                if (!compressed.get(names[queryKey[i]], queryTime[i]).equals(expected[i])) mismatches++;
+            }
+            long compressedTime = System.nanoTime() - start;
+            if (round > 0) {
+                treeNs += treeTime;
+                compressedNs += compressedTime;
+            }
+        }
+
+        long total = (long) keys * versions;
+        System.out.printf("jitter +-%d: bytes/version TimeMap=%.1f Compressed=%.1f (%.1fx less),"
+                        + " timestamp bits/version=%.2f | get ns/op TimeMap=%.1f Compressed=%.1f%s%n", jitter,
+                (double) treeBytes / total, (double) compressedBytes / total,
+                (double) treeBytes / compressedBytes, compressed.timestampBytes() * 8.0 / total,
+                treeNs / 2.0 / reads, compressedNs / 2.0 / reads,
+                mismatches == 0 ? "" : " (" + mismatches + " mismatches!)");
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,243 @@
+import java.lang.ref.Reference;
+import java.util.*;
+
+public class DictionaryTimeMap {
+    // Problem: Time Based Key-Value Store with Dictionary-Encoded Values
+    // Same operations as TimeMap (set, get = floor lookup). In real traces most set calls store one of a
+    // few thousand distinct values ("OK", "DEGRADED", a build id, ...), yet every version keeps its own
+    // String reference, and values parsed from requests are usually separate copies of equal strings.
+    // Add an optional value dictionary: each distinct value is stored once and versions hold an int code.
+    // The dictionary is bounded; once it reaches maxCardinality, new distinct values are stored raw.
+    // DSA Pattern: HashMap + Sorted Parallel Arrays + Dictionary Encoding (String <-> int code)
+    // Approach:
+    // 1. Store-wide dictionary: HashMap<String, Integer> from value to code and a String[] from code to
+    //    value. The first copy of a value that is seen becomes the canonical one.
+    // 2. Per key, columnar storage as in ColumnarTimeMap: int[] timestamps and int[] codes, sorted by
+    //    timestamp. A raw String[] column is allocated lazily, only for keys that store at least one
+    //    value outside the dictionary; its versions have code RAW (-1).
+    // 3. set(key, value, timestamp):
+    //    - code = dictionary code of value; if unknown and the dictionary is below maxCardinality, add
+    //      it; otherwise code = RAW and the value goes to the raw column.
+    //    - In-order timestamp: append. Equal timestamp: overwrite. Older timestamp: insert at its
+    //      sorted position (arraycopy shift).
+    // 4. get(key, timestamp): branch-light floor search, then decode: dictionary[code] or raw[i].
+    // 5. maxCardinality = 0 turns the dictionary off (every value raw), which is the baseline that
+    //    main() compares against, together with the TreeMap-based TimeMap
+    //    (compile together with 04_TimeBasedKeyValueStore.java).
+    // Key Points to Remember:
+    // - A version costs 8 bytes (int timestamp + int code) instead of a reference plus a private copy
+    //   of the string.
+    // - The bound keeps a high-cardinality key (request ids, free text) from growing the dictionary
+    //   forever; such values simply fall back to raw storage.
+    // - Codes are never reused or removed, so a stored code always decodes to the value it was set with.
+    // - Edge cases: dictionary full, dictionary disabled, a key mixing coded and raw versions, missing key.
+    // Time Complexity:
+    // - set: O(1) expected for in-order timestamps (one dictionary lookup), O(t) for out-of-order.
+    // - get: O(log t) plus an O(1) array decode.
+    // Space Complexity: O(n * t + d) for n keys, t versions per key and d distinct dictionary values.
+
+    private static final int RAW = -1;    // Code of a version whose value lives in the raw column
+
+    // One key's history
+    private static final class Series {
+        int[] timestamps = new int[4];    // Sorted timestamp column
+        int[] codes = new int[4];         // Dictionary code of each version, or RAW
+        String[] raw;                     // Values of RAW versions; null until the first one
+        int size;                         // Number of versions
+    }
+
+    private final Map<String, Series> map;           // Key -> its version history
+    private final Map<String, Integer> codeOf;       // Value -> dictionary code
+    private String[] dictionary = new String[16];    // Code -> canonical value
+    private int cardinality;                         // Codes handed out so far
+    private final int maxCardinality;                // Dictionary bound; 0 disables it
+    private long rawVersions;                        // Versions stored outside the dictionary
+
+    // Constructor: at most maxCardinality distinct values are dictionary-encoded
+    public DictionaryTimeMap(int maxCardinality) {
+        if (maxCardinality < 0) {
+            throw new IllegalArgumentException("maxCardinality must be >= 0");
+        }
+        this.map = new HashMap<>();
+        this.codeOf = new HashMap<>();
+        this.maxCardinality = maxCardinality;
+    }
+
+    // Set operation: Store the value for the key at the given timestamp
+    public void set(String key, String value, int timestamp) {
+        Series series = map.computeIfAbsent(key, k -> new Series());
+        int code = encode(value);
+        int n = series.size;
+        int pos = n;
+        if (n > 0 && timestamp <= series.timestamps[n - 1]) {
+            pos = Arrays.binarySearch(series.timestamps, 0, n, timestamp);
+            if (pos >= 0) {
+                store(series, pos, code, value);        // Same timestamp: overwrite
+                return;
+            }
+            pos = -pos - 1;
+        }
+        if (n == series.timestamps.length) {
+            series.timestamps = Arrays.copyOf(series.timestamps, n * 2);
+            series.codes = Arrays.copyOf(series.codes, n * 2);
+            if (series.raw != null) {
+                series.raw = Arrays.copyOf(series.raw, n * 2);
+            }
+        }
+        System.arraycopy(series.timestamps, pos, series.timestamps, pos + 1, n - pos);
+        System.arraycopy(series.codes, pos, series.codes, pos + 1, n - pos);
+        if (series.raw != null) {
+            System.arraycopy(series.raw, pos, series.raw, pos + 1, n - pos);
+            series.raw[pos] = null;
+        }
+        series.timestamps[pos] = timestamp;
+        series.size = n + 1;
+        store(series, pos, code, value);
+    }
+
+    // Get operation: Retrieve the value for the key at the largest timestamp <= given timestamp
+    public String get(String key, int timestamp) {
+        Series series = map.get(key);
+        if (series == null || series.size == 0) {
+            return "";
+        }
+        int[] ts = series.timestamps;
+        int base = 0;
+        int n = series.size;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = ts[base + half] <= timestamp ? base + half : base;
+            n -= half;
+        }
+        if (ts[base] > timestamp) {
+            return "";
+        }
+        int code = series.codes[base];
+        return code == RAW ? series.raw[base] : dictionary[code];
+    }
+
+    // Number of distinct values in the dictionary
+    public int cardinality() {
+        return cardinality;
+    }
+
+    // Number of versions whose value is stored raw (dictionary full or disabled)
+    public long rawVersions() {
+        return rawVersions;
+    }
+
+    // Dictionary code for value, adding it while there is room; RAW otherwise
+    private int encode(String value) {
+        Integer code = codeOf.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (cardinality == maxCardinality) {
+            return RAW;
+        }
+        if (cardinality == dictionary.length) {
+            dictionary = Arrays.copyOf(dictionary, cardinality * 2);
+        }
+        dictionary[cardinality] = value;
+        codeOf.put(value, cardinality);
+        return cardinality++;
+    }
+
+    // Write version pos of series, keeping the raw column and rawVersions in sync
+    private void store(Series series, int pos, int code, String value) {
+        boolean wasRaw = series.raw != null && series.raw[pos] != null;
+        if (code == RAW) {
+            if (series.raw == null) {
+                series.raw = new String[series.timestamps.length];
+            }
+            series.raw[pos] = value;
+            if (!wasRaw) {
+                rawVersions++;
+            }
+        } else if (wasRaw) {
+            series.raw[pos] = null;
+            rawVersions--;
+        }
+        series.codes[pos] = code;
+    }
+
+    // Benchmark: heap usage on a skewed trace where values arrive as fresh String copies
+    public static void main(String[] args) {
+        final int keys = 2_000;
+        final int versions = 1_000;
+        final int distinct = 3_000;
+        String[] names = new String[keys];
+        for (int k = 0; k < keys; k++) {
+            names[k] = "host-" + k + ".cpu.state";
+        }
+
+        // Each store sees the same trace; values are built per call, as if parsed from a request
+        long treeBytes = measure(new TimeMap()::set, names, versions, distinct);
+        long rawBytes = measure(new DictionaryTimeMap(0)::set, names, versions, distinct);
+        DictionaryTimeMap bounded = new DictionaryTimeMap(1_000);
+        long boundedBytes = measure(bounded::set, names, versions, distinct);
+        DictionaryTimeMap encoded = new DictionaryTimeMap(10_000);
+        long encodedBytes = measure(encoded::set, names, versions, distinct);
+
+        long total = (long) keys * versions;
+        System.out.printf("TimeMap (TreeMap)          %6.1f bytes/version%n", (double) treeBytes / total);
+        System.out.printf("dictionary off             %6.1f bytes/version%n", (double) rawBytes / total);
+        System.out.printf("dictionary <= 1000 values  %6.1f bytes/version (%d raw versions)%n",
+                (double) boundedBytes / total, bounded.rawVersions());
+        System.out.printf("dictionary <= 10000 values %6.1f bytes/version (%d distinct, %d raw)%n",
+                (double) encodedBytes / total, encoded.cardinality(), encoded.rawVersions());
+
+        // Decoding check against the generator, plus overwrite of a raw version with a coded one
+        Random random = new Random(42);
+        for (int v = 0; v < versions; v++) {
+            for (int k = 0; k < keys; k++) {
+                String expected = value(random, distinct);
+                if (!encoded.get(names[k], v * 10 + 5).equals(expected)
+                        || !bounded.get(names[k], v * 10 + 9).equals(expected)) {
+                    throw new AssertionError("wrong value for " + names[k] + " at version " + v);
+                }
+            }
+        }
+        DictionaryTimeMap small = new DictionaryTimeMap(1);
+        small.set("k", "a", 10);
+        small.set("k", "b", 20);           // Dictionary full: raw
+        small.set("k", "a", 20);           // Overwrite the raw version with a coded one
+        small.set("k", "c", 15);           // Out-of-order raw insert
+        if (!small.get("k", 15).equals("c") || !small.get("k", 20).equals("a") || small.rawVersions() != 1) {
+            throw new AssertionError("get(k, 15) = " + small.get("k", 15) + ", get(k, 20) = " + small.get("k", 20)
+                    + ", raw versions = " + small.rawVersions() + "; want c, a, 1");
+        }
+        System.out.println("get(k, 15) = c, get(k, 20) = a, raw versions = 1; decoded values match the trace");
+    }
+
+    // Interface for the set method shared by the compared stores
+    private interface Setter {
+        void set(String key, String value, int timestamp);
+    }
+
+    // Heap growth after replaying the trace into one store
+    private static long measure(Setter store, String[] names, int versions, int distinct) {
+        Random random = new Random(42);
+        long before = usedMemory();
+        for (int v = 0; v < versions; v++) {
+            for (int k = 0; k < names.length; k++) {
+                store.set(names[k], value(random, distinct), v * 10);
+            }
+        }
+        long bytes = usedMemory() - before;
+        Reference.reachabilityFence(store);         // Keep the store alive until it is measured
+        return bytes;
+    }
+
+    // Skewed choice among distinct values (a few are very common), always a freshly built String
+    private static String value(Random random, int distinct) {
+        double u = random.nextDouble();
+        return "status-" + (int) (distinct * u * u * u);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
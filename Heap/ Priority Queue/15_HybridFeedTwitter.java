@@ -0,0 +1,367 @@
+import java.util.*;
+
+public class HybridFeedTwitter {
+    // Problem: Design Twitter with a Precomputed (Fan-out-on-Write) News Feed
+    // Same operations as Twitter (postTweet, getNewsFeed, follow, unfollow). Twitter.getNewsFeed merges
+    // the tweet lists of every followee on every read, so a user who follows thousands of accounts pays
+    // O(f log f) per read; that is the p99 of the read path. Move the work to the write path instead:
+    // - postTweet pushes the tweet into a bounded feed buffer of every follower (fan-out-on-write).
+    // - Accounts with celebrityThreshold or more followers do NOT push (one post would touch millions
+    //   of buffers); their tweets are pulled and merged at read time (fan-out-on-read).
+    // - getNewsFeed merges the reader's buffer with the few celebrities it follows: O(10 + c log c).
+    // DSA Pattern: HashMap + Bounded Ring Buffer per User + Max-Heap Merge for the Pull Side
+    // Approach:
+    // 1. User: followed set, followers set, the set of followed celebrities, tweet list (head = newest,
+    //    as in Twitter), a celebrity flag and a feed ring buffer of FEED_CAPACITY
+    //    (time, tweetId, authorId) entries in which the oldest entry is overwritten.
+    // 2. Buffer invariant: it holds the newest FEED_CAPACITY tweets of the non-celebrity accounts the
+    //    user follows (self included); 'truncated' records that older ones were dropped.
+    // 3. postTweet(u, t): prepend to u's tweet list; if u is not a celebrity, append (time, t, u) to the
+    //    buffer of u and of every follower. Times grow globally, so appends keep each buffer sorted.
+    // 4. follow(a, b): update both sets. If b pushes, merge b's newest tweets into a's buffer. If b's
+    //    follower count reaches the threshold, b becomes a celebrity (sticky, so it is never demoted and
+    //    followers never miss its old tweets) and joins the celebrity set of every follower.
+    // 5. unfollow(a, b): update both sets and rebuild a's buffer by a pull-merge (rare operation).
+    // 6. getNewsFeed(u): merge, newest first, the buffer (skipping entries of authors promoted to
+    //    celebrity after they were pushed) with a max-heap over the tweet lists of followed celebrities.
+    //    If the buffer runs dry while it is truncated, rebuild it and merge again.
+    // 7. main() replays a mixed workload against Twitter (compile together with 05_DesignTwitter.java),
+    //    checks every feed is identical, and reports read latency percentiles and post amplification.
+    // Key Points to Remember:
+    // - Post amplification = buffer writes per post; the threshold caps it at celebrityThreshold.
+    // - The buffer is larger than the 10-tweet feed so that skipped entries rarely force a rebuild.
+    // - Correctness never depends on the buffer being complete: a truncated, exhausted buffer triggers
+    //   a rebuild instead of returning a short feed.
+    // - Edge cases: unknown user, following a celebrity, unfollowing self (ignored), promotion of an
+    //   account whose tweets already sit in buffers.
+    // Time Complexity:
+    // - postTweet: O(followers) for pushing accounts, O(1) for celebrities.
+    // - getNewsFeed: O(10 + c log c) for c followed celebrities; O(f log f) when a rebuild is needed.
+    // - follow: O(FEED_CAPACITY); unfollow: O(f log f + FEED_CAPACITY log f).
+    // Space Complexity: O(u * FEED_CAPACITY + t + f) for u users, t tweets and f follow edges.
+
+    private static final int FEED_CAPACITY = 32;   // Entries kept per feed buffer
+    private static final int FEED_SIZE = 10;       // Tweets returned by getNewsFeed
+
+    private final int celebrityThreshold;          // Follower count at which an account stops pushing
+    private int timeStamp = 0;                     // Global timestamp to track tweet posting order
+    private long pushes;                           // Buffer writes done by postTweet
+    private long posts;                            // Number of postTweet calls
+    private long rebuilds;                         // Feed buffers rebuilt by pull-merge
+
+    // User class to represent each user in Twitter
+    private class User {
+        int id;                                    // Unique user ID
+        Set<Integer> followed = new HashSet<>();   // Users this user follows (self included)
+        Set<Integer> followers = new HashSet<>();  // Users following this user (self excluded)
+        Set<Integer> celebrities = new HashSet<>(); // Followed users (self included) that are pulled
+        Tweet tweetHead;                           // Head of the linked list of user's tweets
+        boolean celebrity;                         // True once followers reached the threshold
+
+        // Feed ring buffer: slot (start + i) % FEED_CAPACITY is the i-th oldest entry
+        int[] feedTime = new int[FEED_CAPACITY];
+        int[] feedTweet = new int[FEED_CAPACITY];
+        int[] feedAuthor = new int[FEED_CAPACITY];
+        int feedStart;
+        int feedSize;
+        boolean truncated;                         // Entries were dropped off the old end
+
+        User(int id) {
+            this.id = id;
+            followed.add(id);                      // User follows themselves
+        }
+
+        // Append the newest entry, overwriting the oldest one when full
+        void push(int time, int tweetId, int authorId) {
+            int slot = (feedStart + feedSize) % FEED_CAPACITY;
+            if (feedSize == FEED_CAPACITY) {
+                feedStart = (feedStart + 1) % FEED_CAPACITY;
+                truncated = true;
+            } else {
+                feedSize++;
+            }
+            feedTime[slot] = time;
+            feedTweet[slot] = tweetId;
+            feedAuthor[slot] = authorId;
+        }
+    }
+
+    // Tweet class to represent each tweet
+    private class Tweet {
+        int id;        // Tweet ID
+        int author;    // ID of the user who posted it
+        int time;      // Timestamp of when tweet was posted
+        Tweet next;    // Pointer to next (older) tweet in user's tweet list
+
+        Tweet(int id, int author, Tweet next) {
+            this.id = id;
+            this.author = author;
+            this.time = timeStamp++;
+            this.next = next;
+        }
+    }
+
+    private Map<Integer, User> userMap; // Maps user IDs to User objects
+
+    // Constructor: accounts with celebrityThreshold or more followers are pulled instead of pushed
+    public HybridFeedTwitter(int celebrityThreshold) {
+        this.celebrityThreshold = celebrityThreshold;
+        userMap = new HashMap<>();
+    }
+
+    /** Compose a new tweet and push it to the followers' feeds unless the author is a celebrity. */
+    public void postTweet(int userId, int tweetId) {
+        User user = getOrCreate(userId);
+        user.tweetHead = new Tweet(tweetId, userId, user.tweetHead);
+        posts++;
+        if (user.celebrity) {
+            return;                                // Pulled at read time
+        }
+        int time = user.tweetHead.time;
+        user.push(time, tweetId, userId);
+        pushes++;
+        for (int followerId : user.followers) {
+            userMap.get(followerId).push(time, tweetId, userId);
+            pushes++;
+        }
+    }
+
+    /** Retrieve the 10 most recent tweet IDs in the user's news feed, most recent first. */
+    public List<Integer> getNewsFeed(int userId) {
+        User user = userMap.get(userId);
+        if (user == null) {
+            return new ArrayList<>();
+        }
+        List<Integer> newsFeed = mergeFeed(user);
+        if (newsFeed == null) {                    // Buffer ran dry but older tweets exist
+            rebuildFeed(user);
+            newsFeed = mergeFeed(user);
+        }
+        return newsFeed;
+    }
+
+    /** Follower follows a followee. */
+    public void follow(int followerId, int followeeId) {
+        User follower = getOrCreate(followerId);
+        User followee = getOrCreate(followeeId);
+        if (followerId == followeeId || !follower.followed.add(followeeId)) {
+            return;
+        }
+        followee.followers.add(followerId);
+        if (!followee.celebrity && followee.followers.size() >= celebrityThreshold) {
+            promote(followee);
+        } else if (followee.celebrity) {
+            follower.celebrities.add(followeeId);
+        } else {
+            backfill(follower, followee);
+        }
+    }
+
+    /** Follower unfollows a followee. */
+    public void unfollow(int followerId, int followeeId) {
+        User follower = userMap.get(followerId);
+        if (follower == null || followerId == followeeId || !follower.followed.remove(followeeId)) {
+            return;
+        }
+        userMap.get(followeeId).followers.remove(followerId);
+        if (follower.celebrities.remove(followeeId)) {
+            return;                                // Pulled account: nothing in the buffer to drop
+        }
+        rebuildFeed(follower);                     // Drop the followee's entries from the buffer
+    }
+
+    // Buffer writes per post so far
+    public double postAmplification() {
+        return posts == 0 ? 0 : (double) pushes / posts;
+    }
+
+    // Number of feed buffers rebuilt by a pull-merge
+    public long rebuilds() {
+        return rebuilds;
+    }
+
+    private User getOrCreate(int userId) {
+        return userMap.computeIfAbsent(userId, User::new);
+    }
+
+    // Switch an account to fan-out-on-read; its followers pull its tweets from now on
+    private void promote(User user) {
+        user.celebrity = true;
+        user.celebrities.add(user.id);
+        for (int followerId : user.followers) {
+            userMap.get(followerId).celebrities.add(user.id);
+        }
+    }
+
+    // Merge buffer and celebrity tweet lists; null if a truncated buffer ran out before 10 tweets
+    private List<Integer> mergeFeed(User user) {
+        PriorityQueue<Tweet> celebrityHeap = new PriorityQueue<>((a, b) -> b.time - a.time);
+        for (int celebrityId : user.celebrities) {
+            Tweet head = userMap.get(celebrityId).tweetHead;
+            if (head != null) {
+                celebrityHeap.add(head);
+            }
+        }
+        List<Integer> newsFeed = new ArrayList<>(FEED_SIZE);
+        int i = user.feedSize - 1;                 // Newest buffer entry first
+        while (newsFeed.size() < FEED_SIZE) {
+            while (i >= 0 && userMap.get(user.feedAuthor[(user.feedStart + i) % FEED_CAPACITY]).celebrity) {
+                i--;                               // Promoted after the push: served by the heap
+            }
+            if (i < 0 && user.truncated) {
+                return null;
+            }
+            int slot = (user.feedStart + i) % FEED_CAPACITY;
+            Tweet top = celebrityHeap.peek();
+            if (i >= 0 && (top == null || user.feedTime[slot] > top.time)) {
+                newsFeed.add(user.feedTweet[slot]);
+                i--;
+            } else if (top != null) {
+                celebrityHeap.poll();
+                newsFeed.add(top.id);
+                if (top.next != null) {
+                    celebrityHeap.add(top.next);
+                }
+            } else {
+                break;                             // Fewer than 10 tweets in total
+            }
+        }
+        return newsFeed;
+    }
+
+    // Refill the buffer with the newest FEED_CAPACITY tweets of all pushing followees (pull-merge)
+    private void rebuildFeed(User user) {
+        rebuilds++;
+        PriorityQueue<Tweet> heap = new PriorityQueue<>((a, b) -> b.time - a.time);
+        for (int followeeId : user.followed) {
+            User followee = userMap.get(followeeId);
+            if (!followee.celebrity && followee.tweetHead != null) {
+                heap.add(followee.tweetHead);
+            }
+        }
+        int[] time = new int[FEED_CAPACITY];
+        int[] tweet = new int[FEED_CAPACITY];
+        int[] author = new int[FEED_CAPACITY];
+        int n = 0;
+        while (!heap.isEmpty() && n < FEED_CAPACITY) {
+            Tweet top = heap.poll();
+            time[n] = top.time;
+            tweet[n] = top.id;
+            author[n] = top.author;
+            n++;
+            if (top.next != null) {
+                heap.add(top.next);
+            }
+        }
+        user.truncated = !heap.isEmpty();
+        user.feedStart = 0;
+        user.feedSize = n;
+        for (int k = 0; k < n; k++) {              // Collected newest first; store oldest first
+            user.feedTime[k] = time[n - 1 - k];
+            user.feedTweet[k] = tweet[n - 1 - k];
+            user.feedAuthor[k] = author[n - 1 - k];
+        }
+    }
+
+    // Merge the followee's newest tweets into the follower's buffer, keeping the newest FEED_CAPACITY
+    private void backfill(User follower, User followee) {
+        if (followee.tweetHead == null) {
+            return;
+        }
+        int[] time = new int[FEED_CAPACITY];
+        int[] tweet = new int[FEED_CAPACITY];
+        int[] author = new int[FEED_CAPACITY];
+        int n = 0;
+        int i = follower.feedSize - 1;
+        Tweet t = followee.tweetHead;
+        boolean dropped = follower.truncated;
+        while (n < FEED_CAPACITY && (i >= 0 || t != null)) {
+            int slot = (follower.feedStart + Math.max(i, 0)) % FEED_CAPACITY;
+            if (t == null || (i >= 0 && follower.feedTime[slot] > t.time)) {
+                time[n] = follower.feedTime[slot];
+                tweet[n] = follower.feedTweet[slot];
+                author[n] = follower.feedAuthor[slot];
+                i--;
+            } else {
+                time[n] = t.time;
+                tweet[n] = t.id;
+                author[n] = followee.id;
+                t = t.next;
+            }
+            n++;
+        }
+        follower.truncated = dropped || i >= 0 || t != null;
+        follower.feedStart = 0;
+        follower.feedSize = n;
+        for (int k = 0; k < n; k++) {
+            follower.feedTime[k] = time[n - 1 - k];
+            follower.feedTweet[k] = tweet[n - 1 - k];
+            follower.feedAuthor[k] = author[n - 1 - k];
+        }
+    }
+
+    // Benchmark: mixed workload against the pull-only Twitter, with identical feeds required
+    public static void main(String[] args) {
+        final int users = 10_000;
+        final int operations = 400_000;
+        Random random = new Random(7);
+        Twitter pull = new Twitter();
+        HybridFeedTwitter hybrid = new HybridFeedTwitter(1_000);
+
+        // Follow graph: popularity is skewed, and 2% of users follow thousands of accounts
+        for (int u = 0; u < users; u++) {
+            int following = random.nextInt(50) < 1 ? 2_000 + random.nextInt(2_000) : 20 + random.nextInt(180);
+            for (int f = 0; f < following; f++) {
+                double x = random.nextDouble();
+                int followee = (int) (users * x * x * x);
+                pull.follow(u, followee);
+                hybrid.follow(u, followee);
+            }
+        }
+
+        long[] pullNs = new long[operations];
+        long[] hybridNs = new long[operations];
+        int reads = 0;
+        int tweetId = 0;
+        for (int op = 0; op < operations; op++) {
+            int choice = random.nextInt(100);
+            if (choice < 60) {
+                int author = random.nextInt(users);
+                pull.postTweet(author, tweetId);
+                hybrid.postTweet(author, tweetId);
+                tweetId++;
+            } else if (choice < 97) {
+                int reader = random.nextInt(users);
+                long start = System.nanoTime();
+                List<Integer> expected = pull.getNewsFeed(reader);
+                long mid = System.nanoTime();
+                List<Integer> actual = hybrid.getNewsFeed(reader);
+                long end = System.nanoTime();
+                if (!expected.equals(actual)) {
+                    throw new AssertionError("feed of " + reader + ": " + actual + ", want " + expected);
+                }
+                pullNs[reads] = mid - start;
+                hybridNs[reads] = end - mid;
+                reads++;
+            } else {
+                int a = random.nextInt(users);
+                int b = random.nextInt(users);
+                if (random.nextBoolean()) {
+                    pull.follow(a, b);
+                    hybrid.follow(a, b);
+                } else {
+                    pull.unfollow(a, b);
+                    hybrid.unfollow(a, b);
+                }
+            }
+        }
+
+        Arrays.sort(pullNs, 0, reads);
+        Arrays.sort(hybridNs, 0, reads);
+        System.out.printf("%d reads, all feeds identical; post amplification %.1f buffer writes/post, "
+                + "%d rebuilds%n", reads, hybrid.postAmplification(), hybrid.rebuilds());
+        System.out.printf("getNewsFeed p50/p99/max ns: pull %d/%d/%d, hybrid %d/%d/%d%n",
+                pullNs[reads / 2], pullNs[reads * 99 / 100], pullNs[reads - 1],
+                hybridNs[reads / 2], hybridNs[reads * 99 / 100], hybridNs[reads - 1]);
+    }
+}
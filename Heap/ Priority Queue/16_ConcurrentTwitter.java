@@ -0,0 +1,214 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class ConcurrentTwitter {
+    // Problem: Design Twitter, Safe for Concurrent Requests
+    // Same operations as Twitter (postTweet, getNewsFeed, follow, unfollow), but called from many request
+    // threads at once. Twitter cannot do that: the static int timeStamp++ loses updates, HashMap and
+    // HashSet corrupt under concurrent writes, and the tweet list head is published without any
+    // memory ordering. Requirements:
+    // - A single atomic clock, so tweet times stay unique and increasing.
+    // - Concurrent user map and follow sets.
+    // - getNewsFeed never takes a lock, even while the users it reads are posting.
+    // DSA Pattern: ConcurrentHashMap + Immutable Linked List with a Volatile Head + Max-Heap Merge
+    // Approach:
+    // 1. Tweet nodes are immutable (final id, time, next). A user's list is published through a volatile
+    //    head: a reader that sees a head sees the whole list behind it, fully initialized.
+    // 2. postTweet(u, t): under u's monitor, take time = clock.incrementAndGet() and prepend a node.
+    //    Holding the per-user lock while taking the time keeps every list sorted newest-first even
+    //    when one user posts from two threads; different users never contend.
+    // 3. follow/unfollow: computeIfAbsent on the ConcurrentHashMap, then add/remove in the follower's
+    //    concurrent key set.
+    // 4. getNewsFeed(u): iterate u's followed set (weakly consistent), read each volatile head once,
+    //    and merge with a max-heap exactly like Twitter. No locks, no retries.
+    // 5. main() is the load driver (needs JDK 21). Each request runs as its own task on the executor
+    //    named by the first argument: "virtual" (default, Executors.newVirtualThreadPerTaskExecutor)
+    //    or "platform" (a fixed pool of 4 x CPUs threads). Requests arrive at a fixed rate (open
+    //    loop). Latency runs from the moment a request was due to be submitted to the moment it
+    //    finished, so it includes queueing and any lag of the submitter, not just the handler's
+    //    service time. It reports throughput and latency percentiles per op.
+    // Key Points to Remember:
+    // - Immutability + one volatile write per post is the whole publication argument; the tweet list
+    //   never needs a lock on the read side.
+    // - The clock is a long, so it cannot wrap the way an int counter eventually does.
+    // - A feed is a consistent merge of per-user snapshots; a tweet posted during the read may or may
+    //   not appear, which is the normal guarantee for a timeline.
+    // - Virtual threads make a task per request cheap, so blocking-style handlers scale without a
+    //   hand-tuned pool.
+    // - Edge cases: unknown user, unfollowing self (ignored), the same user posting from two threads.
+    // Time Complexity:
+    // - postTweet: O(1); follow/unfollow: O(1) expected.
+    // - getNewsFeed: O(f + 10 log f) for f followed users.
+    // Space Complexity: O(u + t + f) for users, tweets and follow edges.
+
+    private final AtomicLong clock = new AtomicLong();   // Global tweet clock
+
+    // Immutable tweet node; the list behind a published head never changes
+    private static final class Tweet {
+        final int id;       // Tweet ID
+        final long time;    // Clock value when it was posted
+        final Tweet next;   // Next (older) tweet of the same user
+
+        Tweet(int id, long time, Tweet next) {
+            this.id = id;
+            this.time = time;
+            this.next = next;
+        }
+    }
+
+    // User with a concurrent follow set and a volatile tweet list head
+    private static final class User {
+        final int id;
+        final Set<Integer> followed = ConcurrentHashMap.newKeySet();   // Includes self
+        volatile Tweet tweetHead;                                      // Newest tweet, or null
+
+        User(int id) {
+            this.id = id;
+            followed.add(id);
+        }
+    }
+
+    private final ConcurrentHashMap<Integer, User> userMap = new ConcurrentHashMap<>();
+
+    /** Compose a new tweet. */
+    public void postTweet(int userId, int tweetId) {
+        User user = getOrCreate(userId);
+        synchronized (user) {                                 // Serializes posts of this user only
+            user.tweetHead = new Tweet(tweetId, clock.incrementAndGet(), user.tweetHead);
+        }
+    }
+
+    /** Retrieve the 10 most recent tweet IDs in the user's news feed, without locking. */
+    public List<Integer> getNewsFeed(int userId) {
+        List<Integer> newsFeed = new ArrayList<>(10);
+        User user = userMap.get(userId);
+        if (user == null) {
+            return newsFeed;
+        }
+        PriorityQueue<Tweet> tweetHeap = new PriorityQueue<>((a, b) -> Long.compare(b.time, a.time));
+        for (int followeeId : user.followed) {
+            User followee = userMap.get(followeeId);
+            Tweet head = followee == null ? null : followee.tweetHead;   // One volatile read per user
+            if (head != null) {
+                tweetHeap.add(head);
+            }
+        }
+        while (!tweetHeap.isEmpty() && newsFeed.size() < 10) {
+            Tweet tweet = tweetHeap.poll();
+            newsFeed.add(tweet.id);
+            if (tweet.next != null) {
+                tweetHeap.add(tweet.next);
+            }
+        }
+        return newsFeed;
+    }
+
+    /** Follower follows a followee. */
+    public void follow(int followerId, int followeeId) {
+        getOrCreate(followeeId);
+        getOrCreate(followerId).followed.add(followeeId);
+    }
+
+    /** Follower unfollows a followee. */
+    public void unfollow(int followerId, int followeeId) {
+        User follower = userMap.get(followerId);
+        if (follower != null && followerId != followeeId) {
+            follower.followed.remove(followeeId);
+        }
+    }
+
+    private User getOrCreate(int userId) {
+        return userMap.computeIfAbsent(userId, User::new);
+    }
+
+    // Load driver: one task per request, mixed follow/post/feed traffic
+    public static void main(String[] args) throws Exception {
+        final int users = 10_000;
+        final int requests = 1_000_000;
+        final long intervalNs = 10_000;          // Offered load: one request every 10 us (100k/s)
+        ConcurrentTwitter twitter = new ConcurrentTwitter();
+        Random random = new Random(11);
+        for (int u = 0; u < users; u++) {
+            for (int f = 0; f < 50; f++) {
+                twitter.follow(u, random.nextInt(users));
+            }
+        }
+
+        // Request mix: 5% follow, 5% unfollow, 30% post, 60% feed
+        int[] kind = new int[requests];
+        int[] a = new int[requests];
+        int[] b = new int[requests];
+        for (int i = 0; i < requests; i++) {
+            int choice = random.nextInt(100);
+            kind[i] = choice < 5 ? 0 : choice < 10 ? 1 : choice < 40 ? 2 : 3;
+            a[i] = random.nextInt(users);
+            b[i] = random.nextInt(users);
+        }
+        long[] latencyNs = new long[requests];
+        String[] names = {"follow", "unfollow", "post", "feed"};
+
+        String executorName = args.length > 0 ? args[0] : "virtual";
+        ExecutorService executor;
+        switch (executorName) {
+            case "virtual": executor = Executors.newVirtualThreadPerTaskExecutor(); break;
+            case "platform":
+                executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+                break;
+            default: throw new IllegalArgumentException("executor must be virtual or platform: " + executorName);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; ) {
+            long now = System.nanoTime();
+            for (; i < requests && start + i * intervalNs <= now; i++) {   // Every request now due
+                final int r = i;
+                final long due = start + r * intervalNs;
+                executor.execute(() -> {
+                    switch (kind[r]) {
+                        case 0: twitter.follow(a[r], b[r]); break;
+                        case 1: twitter.unfollow(a[r], b[r]); break;
+                        case 2: twitter.postTweet(a[r], r); break;
+                        default: twitter.getNewsFeed(a[r]); break;
+                    }
+                    latencyNs[r] = System.nanoTime() - due;   // Own slot per task; read after shutdown
+                });
+            }
+            LockSupport.parkNanos(20_000);
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.MINUTES)) {
+            throw new AssertionError("requests still running after 10 minutes");
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%s threads, %d CPUs, offered %d requests/s: completed %.0f requests/s%n",
+                executorName, Runtime.getRuntime().availableProcessors(), 1_000_000_000L / intervalNs,
+                requests * 1e9 / elapsed);
+        for (int k = 0; k < names.length; k++) {
+            long[] samples = new long[requests];
+            int n = 0;
+            for (int i = 0; i < requests; i++) {
+                if (kind[i] == k) samples[n++] = latencyNs[i];
+            }
+            Arrays.sort(samples, 0, n);
+            System.out.printf("  %-8s n=%7d p50=%8.1f us p99=%8.1f us p99.9=%8.1f us%n", names[k], n,
+                    samples[n / 2] / 1e3, samples[(int) (n * 0.99)] / 1e3, samples[(int) (n * 0.999)] / 1e3);
+        }
+
+        // Quiescent check: every tweet list is strictly newest-first and every post is present
+        long tweets = 0;
+        for (User user : twitter.userMap.values()) {
+            for (Tweet t = user.tweetHead; t != null; t = t.next, tweets++) {
+                if (t.next != null && t.next.time >= t.time) {
+                    throw new AssertionError("tweets of user " + user.id + " out of order");
+                }
+            }
+        }
+        long posts = Arrays.stream(kind).filter(k -> k == 2).count();
+        if (tweets != posts) {
+            throw new AssertionError("lost tweets: " + tweets + " stored, " + posts + " posted");
+        }
+        System.out.println("all " + posts + " tweets present and ordered");
+    }
+}
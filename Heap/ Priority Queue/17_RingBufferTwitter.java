@@ -0,0 +1,298 @@
+import java.util.*;
+
+public class RingBufferTwitter {
+    // Problem: Design Twitter with Bounded Primitive Tweet Storage
+    // Same operations as Twitter (postTweet, getNewsFeed, follow, unfollow). Twitter allocates a Tweet
+    // object (id, time, next pointer: 24 bytes plus GC work) per post and keeps every tweet forever,
+    // although a feed only ever shows each user's newest 10. Instead:
+    // - Each user keeps a ring buffer of its newest `depth` tweets in a long[], each slot packing
+    //   (time << 32) | tweetId: 8 bytes per tweet and no per-tweet objects.
+    // - Optionally, tweets pushed out of the ring spill to a per-user archive (an append-only long[]),
+    //   so the full history can still be read back with getTimeline.
+    // - getNewsFeed merges directly over the ring buffers with a primitive heap.
+    // DSA Pattern: HashMap + Ring Buffer (long[] packing) + K-Way Merge with a Primitive Max-Heap
+    // Approach:
+    // 1. User: followed set (as in Twitter), ring[], head (next slot to write), count, and archive[]
+    //    when archiving is enabled. The ring grows by doubling up to depth, then wraps.
+    // 2. postTweet(u, t): packed = (time << 32) | t. If the ring is full, the slot at head holds the
+    //    oldest tweet: append it to the archive (if enabled) before overwriting it.
+    //    The k-th newest tweet lives at ring[(head - 1 - k) mod length].
+    // 3. getNewsFeed(u): one cursor per followed user with tweets. The heap holds one long per cursor:
+    //    (time of the cursor's next tweet << 32) | cursor index, so comparing two longs compares times
+    //    and the cursor is recovered from the low bits. Pop, emit, advance that cursor, push its next
+    //    tweet; stop after 10 tweets.
+    // 4. main() compares memory and feed latency with Twitter (compile together with
+    //    05_DesignTwitter.java) and checks that every feed is identical.
+    // Key Points to Remember:
+    // - depth must be >= 10, otherwise a feed could need a tweet the ring already dropped.
+    // - Times are non-negative ints (one per post), so the packed long orders like the time alone.
+    // - The merge allocates a few arrays of size f per call, never one object per tweet.
+    // - The archive is sorted oldest-first by construction, because the ring evicts in time order.
+    // - Edge cases: unknown user, followee with no tweets, ring not yet full, archive disabled.
+    // Time Complexity:
+    // - postTweet: O(1) amortized.
+    // - getNewsFeed: O(f + 10 log f) for f followed users.
+    // - follow/unfollow: O(1).
+    // Space Complexity: O(u * depth + f) without archive; plus 8 bytes per archived tweet.
+
+    private final int depth;            // Newest tweets kept per user in the ring
+    private final boolean archive;      // Spill evicted tweets to the per-user archive
+    private int timeStamp = 0;          // Global timestamp to track tweet posting order
+
+    // User with a packed ring buffer of its newest tweets
+    private class User {
+        int id;                          // Unique user ID
+        Set<Integer> followed;           // Set of user IDs this user follows (self included)
+        long[] ring = new long[4];       // (time << 32) | tweetId, grows up to depth
+        int head;                        // Next slot to write
+        int count;                       // Tweets currently in the ring
+        long[] archived;                 // Evicted tweets, oldest first (null until first eviction)
+        int archivedCount;
+
+        User(int id) {
+            this.id = id;
+            followed = new HashSet<>();
+            followed.add(id);            // User follows themselves
+        }
+
+        void post(long packed) {
+            if (count == ring.length && ring.length < depth) {
+                ring = Arrays.copyOf(ring, Math.min(ring.length * 2, depth));   // Not wrapped yet
+                head = count;                       // head had wrapped to 0 when the ring filled up
+            }
+            if (count == ring.length) {
+                if (archive) {
+                    if (archived == null) {
+                        archived = new long[depth];
+                    } else if (archivedCount == archived.length) {
+                        archived = Arrays.copyOf(archived, archivedCount * 2);
+                    }
+                    archived[archivedCount++] = ring[head];   // Oldest tweet in the ring
+                }
+            } else {
+                count++;
+            }
+            ring[head] = packed;
+            head = head + 1 == ring.length ? 0 : head + 1;
+        }
+
+        // k-th newest tweet in the ring, 0 <= k < count
+        long newest(int k) {
+            int slot = head - 1 - k;
+            return ring[slot < 0 ? slot + ring.length : slot];
+        }
+    }
+
+    private Map<Integer, User> userMap; // Maps user IDs to User objects
+
+    // Constructor: keep depth (>= 10) tweets per user, spilling older ones to an archive if requested
+    public RingBufferTwitter(int depth, boolean archive) {
+        if (depth < 10) {
+            throw new IllegalArgumentException("depth must be at least the feed size (10)");
+        }
+        this.depth = depth;
+        this.archive = archive;
+        userMap = new HashMap<>();
+    }
+
+    /** Compose a new tweet. */
+    public void postTweet(int userId, int tweetId) {
+        getOrCreate(userId).post(((long) timeStamp++ << 32) | (tweetId & 0xFFFFFFFFL));
+    }
+
+    /** Retrieve the 10 most recent tweet IDs in the user's news feed, most recent first. */
+    public List<Integer> getNewsFeed(int userId) {
+        List<Integer> newsFeed = new ArrayList<>(10);
+        User user = userMap.get(userId);
+        if (user == null) {
+            return newsFeed;
+        }
+        User[] sources = new User[user.followed.size()];
+        int[] taken = new int[sources.length];      // Tweets already emitted from each source
+        long[] heap = new long[sources.length];     // (time << 32) | source index
+        int size = 0;
+        for (int followeeId : user.followed) {
+            User followee = userMap.get(followeeId);
+            if (followee != null && followee.count > 0) {
+                sources[size] = followee;
+                siftUp(heap, size, (followee.newest(0) >>> 32 << 32) | size);
+                size++;
+            }
+        }
+        while (size > 0 && newsFeed.size() < 10) {
+            int source = (int) heap[0];
+            User followee = sources[source];
+            newsFeed.add((int) followee.newest(taken[source]));
+            taken[source]++;
+            if (taken[source] < followee.count) {   // Replace the top with this source's next tweet
+                siftDown(heap, size, (followee.newest(taken[source]) >>> 32 << 32) | source);
+            } else {
+                size--;
+                siftDown(heap, size, heap[size]);
+            }
+        }
+        return newsFeed;
+    }
+
+    /** Full history of a user, newest first: the ring, then the archive (if enabled). */
+    public long[] getTimeline(int userId) {
+        User user = userMap.get(userId);
+        if (user == null) {
+            return new long[0];
+        }
+        long[] timeline = new long[user.count + user.archivedCount];
+        for (int k = 0; k < user.count; k++) {
+            timeline[k] = user.newest(k);
+        }
+        for (int k = 0; k < user.archivedCount; k++) {
+            timeline[user.count + k] = user.archived[user.archivedCount - 1 - k];
+        }
+        return timeline;
+    }
+
+    /** Follower follows a followee. */
+    public void follow(int followerId, int followeeId) {
+        getOrCreate(followeeId);
+        getOrCreate(followerId).followed.add(followeeId);
+    }
+
+    /** Follower unfollows a followee. */
+    public void unfollow(int followerId, int followeeId) {
+        User follower = userMap.get(followerId);
+        if (follower != null && followerId != followeeId) {
+            follower.followed.remove(followeeId);
+        }
+    }
+
+    private User getOrCreate(int userId) {
+        return userMap.computeIfAbsent(userId, User::new);
+    }
+
+    // Max-heap insert of value into heap[0, size)
+    private static void siftUp(long[] heap, int size, long value) {
+        int i = size;
+        while (i > 0 && heap[(i - 1) / 2] < value) {
+            heap[i] = heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        heap[i] = value;
+    }
+
+    // Replace the root of heap[0, size) with value and restore the max-heap order
+    private static void siftDown(long[] heap, int size, long value) {
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (size > 0) {
+            heap[i] = value;
+        }
+    }
+
+    // Benchmark: memory and feed latency against Twitter, with identical feeds required
+    public static void main(String[] args) {
+        final int users = 10_000;
+        final int posts = 3_000_000;
+        final int reads = 200_000;
+
+        // Rings that grow before their first wrap (4 -> 8 -> 16 slots): feeds must keep every tweet
+        RingBufferTwitter small = new RingBufferTwitter(16, false);
+        Twitter reference = new Twitter();
+        for (int tweetId = 1; tweetId <= 12; tweetId++) {
+            small.postTweet(1, tweetId);
+            reference.postTweet(1, tweetId);
+            if (!small.getNewsFeed(1).equals(reference.getNewsFeed(1))) {
+                throw new AssertionError("after " + tweetId + " tweets: " + small.getNewsFeed(1)
+                        + ", want " + reference.getNewsFeed(1));
+            }
+        }
+
+        int[][] follows = new int[users][100];
+        Random random = new Random(5);
+        for (int[] row : follows) {
+            for (int f = 0; f < row.length; f++) row[f] = random.nextInt(users);
+        }
+
+        long before = usedMemory();
+        RingBufferTwitter graphOnly = new RingBufferTwitter(16, false);
+        load(graphOnly::follow, graphOnly::postTweet, follows, 0);
+        long graphBytes = usedMemory() - before;            // Users and follow sets, same in all three
+        graphOnly = null;
+
+        before = usedMemory();
+        Twitter twitter = new Twitter();
+        load(twitter::follow, twitter::postTweet, follows, posts);
+        long twitterBytes = usedMemory() - before;
+
+        before = usedMemory();
+        RingBufferTwitter ring = new RingBufferTwitter(16, false);
+        load(ring::follow, ring::postTweet, follows, posts);
+        long ringBytes = usedMemory() - before;
+
+        before = usedMemory();
+        RingBufferTwitter archived = new RingBufferTwitter(16, true);
+        load(archived::follow, archived::postTweet, follows, posts);
+        long archivedBytes = usedMemory() - before;
+
+        long twitterNs = 0;
+        long ringNs = 0;
+        for (int round = 0; round < 3; round++) {         // First round warms up the JIT
+            random = new Random(round);
+            for (int i = 0; i < reads; i++) {
+                int reader = random.nextInt(users);
+                long start = System.nanoTime();
+                List<Integer> expected = twitter.getNewsFeed(reader);
+                long mid = System.nanoTime();
+                List<Integer> actual = ring.getNewsFeed(reader);
+                long end = System.nanoTime();
+                if (!expected.equals(actual) || !expected.equals(archived.getNewsFeed(reader))) {
+                    throw new AssertionError("feed of " + reader + ": " + actual + ", want " + expected);
+                }
+                if (round > 0) {
+                    twitterNs += mid - start;
+                    ringNs += end - mid;
+                }
+            }
+        }
+        int fullHistory = 0;
+        for (int u = 0; u < users; u++) fullHistory += archived.getTimeline(u).length;
+
+        System.out.printf("tweet storage (excluding the follow graph): Twitter %.1f MB, ring depth 16 %.1f MB,"
+                        + " ring + archive %.1f MB (timeline keeps %d of %d tweets)%n",
+                (twitterBytes - graphBytes) / 1e6, (ringBytes - graphBytes) / 1e6,
+                (archivedBytes - graphBytes) / 1e6, fullHistory, posts);
+        System.out.printf("getNewsFeed: Twitter %.0f ns, ring %.0f ns (all feeds identical)%n",
+                twitterNs / 2.0 / reads, ringNs / 2.0 / reads);
+    }
+
+    // Interfaces for the follow and post methods shared by the compared implementations
+    private interface Follow {
+        void follow(int followerId, int followeeId);
+    }
+
+    private interface Post {
+        void postTweet(int userId, int tweetId);
+    }
+
+    private static void load(Follow follow, Post post, int[][] follows, int posts) {
+        for (int u = 0; u < follows.length; u++) {
+            for (int followee : follows[u]) follow.follow(u, followee);
+        }
+        Random random = new Random(9);
+        for (int i = 0; i < posts; i++) post.postTweet(random.nextInt(follows.length), i);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
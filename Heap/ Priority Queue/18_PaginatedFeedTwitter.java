@@ -0,0 +1,263 @@
+import java.util.*;
+
+public class PaginatedFeedTwitter {
+    // Problem: Design Twitter with Cursor-Based Feed Pagination
+    // Twitter.getNewsFeed returns exactly 10 tweets, so infinite scroll has to ask for offset + limit
+    // tweets and throw the first offset away: page p costs O(p * limit * log f). Support
+    // getNewsFeed(userId, limit, cursor) instead:
+    // - It returns a page of up to limit tweet IDs (newest first) as an int[], plus a cursor.
+    // - Passing that cursor back resumes the merge right after the last tweet of the page.
+    // - Deep pages cost the same as the first one.
+    // DSA Pattern: HashMap + Sorted Per-User Arrays (Binary Search) + K-Way Merge with a Max-Heap
+    // Approach:
+    // 1. Each user stores its tweets in two parallel arrays in posting order: times[] (increasing)
+    //    and ids[]. Appending keeps them sorted by time for free.
+    // 2. The cursor is the time of the last tweet returned. All times are unique, so "everything
+    //    strictly older than the cursor" is exactly the rest of the feed; FIRST_PAGE is Long.MAX_VALUE.
+    // 3. getNewsFeed(userId, limit, cursor):
+    //    - For each followed user, binary search times[] for the last tweet older than the cursor and
+    //      put it in a max-heap keyed by (time << 32) | source index (primitive long heap).
+    //    - Pop limit times: emit the tweet, then push the same source's previous (older) tweet.
+    //    - The page's cursor is the time of its last tweet; a page shorter than limit is the last one.
+    // 4. main() pages deep into feeds and compares the cost with offset pagination (re-merging
+    //    offset + limit tweets from the top on every page).
+    // Key Points to Remember:
+    // - A time-based cursor is stable: tweets posted while the user scrolls are newer than the cursor
+    //   and never shift later pages (offset pagination would repeat tweets).
+    // - The cursor is opaque to callers: they only pass back what the previous page returned.
+    // - Edge cases: limit <= 0, unknown user, cursor past the oldest tweet (empty last page), followee
+    //   with no tweets, unfollow between pages (later pages simply exclude that user).
+    // Time Complexity:
+    // - postTweet: O(1) amortized; follow/unfollow: O(1).
+    // - getNewsFeed(userId, limit, cursor): O(f log t + limit log f) for f followed users with up to
+    //   t tweets each, independent of how deep the cursor is.
+    // Space Complexity: O(u + t + f); a page call uses O(f + limit) extra.
+
+    public static final long FIRST_PAGE = Long.MAX_VALUE;   // Cursor for the newest page
+
+    // One page of a feed and the cursor for the next one
+    public static final class Page {
+        public final int[] tweetIds;     // Newest first
+        public final long nextCursor;    // Pass to getNewsFeed for the following page
+        public final boolean last;       // No tweets exist beyond this page
+
+        Page(int[] tweetIds, long nextCursor, boolean last) {
+            this.tweetIds = tweetIds;
+            this.nextCursor = nextCursor;
+            this.last = last;
+        }
+    }
+
+    private int timeStamp = 0;   // Global timestamp to track tweet posting order
+
+    // User with tweets stored in posting order
+    private class User {
+        int id;                          // Unique user ID
+        Set<Integer> followed;           // Set of user IDs this user follows (self included)
+        int[] times = new int[4];        // Increasing post times
+        int[] ids = new int[4];          // ids[i] was posted at times[i]
+        int size;                        // Number of tweets
+
+        User(int id) {
+            this.id = id;
+            followed = new HashSet<>();
+            followed.add(id);            // User follows themselves
+        }
+
+        void post(int tweetId) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            times[size] = timeStamp++;
+            ids[size] = tweetId;
+            size++;
+        }
+
+        // Index of the newest tweet with time < cursor, or -1
+        int lastBefore(long cursor) {
+            int lo = 0;
+            int hi = size;                       // First index with time >= cursor
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] < cursor) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo - 1;
+        }
+    }
+
+    private Map<Integer, User> userMap; // Maps user IDs to User objects
+
+    public PaginatedFeedTwitter() {
+        userMap = new HashMap<>();
+    }
+
+    /** Compose a new tweet. */
+    public void postTweet(int userId, int tweetId) {
+        getOrCreate(userId).post(tweetId);
+    }
+
+    /** The 10 most recent tweet IDs in the user's news feed, as in Twitter. */
+    public List<Integer> getNewsFeed(int userId) {
+        List<Integer> newsFeed = new ArrayList<>(10);
+        for (int tweetId : getNewsFeed(userId, 10, FIRST_PAGE).tweetIds) {
+            newsFeed.add(tweetId);
+        }
+        return newsFeed;
+    }
+
+    /** Up to limit tweets of the news feed that are older than cursor, most recent first. */
+    public Page getNewsFeed(int userId, int limit, long cursor) {
+        User user = userMap.get(userId);
+        if (user == null || limit <= 0) {
+            return new Page(new int[0], cursor, user == null);
+        }
+        User[] sources = new User[user.followed.size()];
+        int[] next = new int[sources.length];        // Index of each source's next (older) tweet
+        long[] heap = new long[sources.length];      // (time << 32) | source index
+        int size = 0;
+        for (int followeeId : user.followed) {
+            User followee = userMap.get(followeeId);
+            int index = followee == null ? -1 : followee.lastBefore(cursor);
+            if (index >= 0) {
+                sources[size] = followee;
+                next[size] = index;
+                siftUp(heap, size, ((long) followee.times[index] << 32) | size);
+                size++;
+            }
+        }
+        int[] page = new int[Math.min(limit, countUpTo(sources, next, size, limit))];
+        long lastTime = cursor;
+        for (int n = 0; n < page.length; n++) {
+            int source = (int) heap[0];
+            User followee = sources[source];
+            int index = next[source]--;
+            page[n] = followee.ids[index];
+            lastTime = followee.times[index];
+            if (index > 0) {
+                siftDown(heap, size, ((long) followee.times[index - 1] << 32) | source);
+            } else {
+                size--;
+                siftDown(heap, size, heap[size]);
+            }
+        }
+        return new Page(page, lastTime, size == 0);
+    }
+
+    /** Follower follows a followee. */
+    public void follow(int followerId, int followeeId) {
+        getOrCreate(followeeId);
+        getOrCreate(followerId).followed.add(followeeId);
+    }
+
+    /** Follower unfollows a followee. */
+    public void unfollow(int followerId, int followeeId) {
+        User follower = userMap.get(followerId);
+        if (follower != null && followerId != followeeId) {
+            follower.followed.remove(followeeId);
+        }
+    }
+
+    private User getOrCreate(int userId) {
+        return userMap.computeIfAbsent(userId, User::new);
+    }
+
+    // Tweets available to the merge, counted only up to limit (sizes the page array exactly)
+    private static int countUpTo(User[] sources, int[] next, int size, int limit) {
+        long available = 0;
+        for (int s = 0; s < size && available < limit; s++) {
+            available += next[s] + 1;
+        }
+        return (int) Math.min(available, limit);
+    }
+
+    // Max-heap insert of value into heap[0, size)
+    private static void siftUp(long[] heap, int size, long value) {
+        int i = size;
+        while (i > 0 && heap[(i - 1) / 2] < value) {
+            heap[i] = heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        heap[i] = value;
+    }
+
+    // Replace the root of heap[0, size) with value and restore the max-heap order
+    private static void siftDown(long[] heap, int size, long value) {
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (size > 0) {
+            heap[i] = value;
+        }
+    }
+
+    // Benchmark: page cost by depth, cursor pagination vs offset pagination (re-merge from the top)
+    public static void main(String[] args) {
+        final int users = 2_000;
+        final int limit = 20;
+        PaginatedFeedTwitter twitter = new PaginatedFeedTwitter();
+        Random random = new Random(17);
+        for (int u = 0; u < users; u++) {
+            for (int f = 0; f < 200; f++) twitter.follow(u, random.nextInt(users));
+        }
+        for (int i = 0; i < 2_000_000; i++) twitter.postTweet(random.nextInt(users), i);
+
+        // Correctness: walking the pages gives the same sequence as one big page, without duplicates
+        int reader = 42;
+        int[] everything = twitter.getNewsFeed(reader, Integer.MAX_VALUE, FIRST_PAGE).tweetIds;
+        int seen = 0;
+        long cursor = FIRST_PAGE;
+        for (Page page = null; page == null || !page.last; ) {
+            page = twitter.getNewsFeed(reader, limit, cursor);
+            for (int tweetId : page.tweetIds) {
+                if (everything[seen++] != tweetId) throw new AssertionError("page mismatch at " + seen);
+            }
+            cursor = page.nextCursor;
+        }
+        if (seen != everything.length) throw new AssertionError("pages returned " + seen + " tweets");
+        System.out.println("paged through " + seen + " tweets of user " + reader + " in pages of " + limit
+                + ", identical to a single merge");
+
+        for (int i = 0; i < 20_000; i++) {                 // Warm up the JIT on both access patterns
+            twitter.getNewsFeed(random.nextInt(users), limit, FIRST_PAGE - i);
+            twitter.getNewsFeed(random.nextInt(users), 100 + i % 100, FIRST_PAGE);
+        }
+        for (int depth : new int[] {1, 10, 100, 1_000}) {
+            long cursorNs = 0;
+            long offsetNs = 0;
+            for (int round = 0; round < 4; round++) {      // First round is not measured
+                for (int u = 0; u < 250; u++) {
+                    reader = random.nextInt(users);
+                    // Cursor for page `depth`, obtained outside the timed region (also warms the caches)
+                    Page before = twitter.getNewsFeed(reader, Math.max(1, depth - 1) * limit, FIRST_PAGE);
+                    long start = System.nanoTime();
+                    Page page = twitter.getNewsFeed(reader, limit, depth == 1 ? FIRST_PAGE : before.nextCursor);
+                    long mid = System.nanoTime();
+                    int[] top = twitter.getNewsFeed(reader, depth * limit, FIRST_PAGE).tweetIds;
+                    int[] offsetPage = Arrays.copyOfRange(top, Math.min(top.length, (depth - 1) * limit), top.length);
+                    long end = System.nanoTime();
+                    if (!Arrays.equals(page.tweetIds, offsetPage)) throw new AssertionError("depth " + depth);
+                    if (round > 0) {
+                        cursorNs += mid - start;
+                        offsetNs += end - mid;
+                    }
+                }
+            }
+            System.out.printf("page %5d: cursor %8.0f ns, offset %10.0f ns%n", depth,
+                    cursorNs / 750.0, offsetNs / 750.0);
+        }
+    }
+}
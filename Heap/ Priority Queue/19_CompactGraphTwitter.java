@@ -0,0 +1,627 @@
+import java.util.*;
+import java.util.function.IntConsumer;
+
+public class CompactGraphTwitter {
+    // Problem: Design Twitter with a Compact Follow Graph
+    // Same operations as Twitter, plus bulk follow/unfollow and mutual follows. Twitter keeps every
+    // follow edge as a boxed Integer inside a HashSet node (~50 bytes per edge), and getNewsFeed walks
+    // a hash table full of pointers. Store each user's follow set compactly instead:
+    // - Small sets (up to ARRAY_MAX ids): one sorted int[] (4 bytes per edge).
+    // - Large sets: a compressed bitmap in the style of Roaring bitmaps. Ids are split into a high
+    //   16-bit chunk key and a low 16-bit part. Each chunk holds either a sorted char[] of low parts
+    //   (2 bytes per edge) or, once it has more than ARRAY_MAX entries, a 65536-bit long[1024] bitmap
+    //   (at most 2 bytes per edge, much less when dense).
+    // - followAll/unfollowAll apply a whole batch in one pass.
+    // - mutualFollows(a, b): accounts followed by both a and b (set intersection).
+    // DSA Pattern: Sorted Arrays + Roaring-Style Chunked Bitmap + Merge/Probe Set Intersection
+    // Approach:
+    // 1. FollowSet starts in array form. add/remove/contains use binary search on the int[].
+    // 2. When the array form exceeds ARRAY_MAX ids it converts to chunks: keys[] (sorted high parts),
+    //    and per chunk a char[] array container or a long[] bitmap container plus its count.
+    //    - Array container: binary search on char[]; converts to a bitmap past ARRAY_MAX entries.
+    //    - Bitmap container: bit test/set/clear; converts back to an array below ARRAY_MAX / 2.
+    //    - The whole set returns to array form below ARRAY_MAX / 2 ids (hysteresis on both levels,
+    //      so a set at the boundary does not flip forms on every call).
+    // 3. followAll(a, ids): sort and dedupe the batch, then merge it with the sorted int[] in one
+    //    O(n + m) pass (chunked sets add ids one by one, each O(log) + a short shift).
+    //    unfollowAll is the same merge, keeping only ids not in the batch.
+    // 4. mutualFollows(a, b): two arrays of similar size are intersected by a linear merge; otherwise
+    //    every id of the smaller set is probed in the larger one (O(min * log max)).
+    // 5. getNewsFeed iterates the set with forEach (array scan or bitmap word scan) and merges tweets
+    //    with a max-heap as in Twitter.
+    // 6. main() reports bytes per edge against Twitter's HashSet (compile together with
+    //    05_DesignTwitter.java) and checks that feeds are identical.
+    // Key Points to Remember:
+    // - Roaring's 4096 threshold is where a char[] array (2 bytes per entry) becomes larger than the
+    //   fixed 8 KB bitmap of a chunk.
+    // - forEach yields ids in increasing order in both forms, which keeps intersections simple.
+    // - Self-follow is implicit (not stored): every user's feed includes their own tweets.
+    // - Edge cases: duplicate ids in a batch, unfollowing self (ignored), an empty chunk (removed), ids
+    //   at chunk boundaries.
+    // Time Complexity:
+    // - follow/unfollow: O(log f + f) worst case for the array shift (f <= ARRAY_MAX), O(log f) for
+    //   bitmap chunks.
+    // - followAll/unfollowAll: O(f + m log m) for a batch of m ids.
+    // - mutualFollows: O(fa + fb) or O(min(fa, fb) * log max(fa, fb)).
+    // - getNewsFeed: O(f + 10 log f).
+    // Space Complexity: 4 bytes per edge (array form) to 2 bytes or less per edge (chunked form).
+
+    private static final int ARRAY_MAX = 4096;   // Array form / array container capacity
+
+    // Compact set of non-negative user ids
+    static final class FollowSet {
+        private int[] ids = new int[0];          // Array form: sorted ids; null in chunked form
+        private int size;                        // Number of ids in the set
+        private char[] keys;                     // Chunked form: sorted high 16 bits of each chunk
+        private char[][] lows;                   // Array container of chunk i (or null)
+        private long[][] bitmaps;                // Bitmap container of chunk i (or null)
+        private int[] counts;                    // Ids in chunk i
+        private int chunks;                      // Number of chunks
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(int id) {
+            if (ids != null) {
+                return Arrays.binarySearch(ids, 0, size, id) >= 0;
+            }
+            int c = findChunk(id >>> 16);
+            if (c < 0) {
+                return false;
+            }
+            char low = (char) id;
+            return bitmaps[c] != null ? (bitmaps[c][low >>> 6] & (1L << low)) != 0
+                    : Arrays.binarySearch(lows[c], 0, counts[c], low) >= 0;
+        }
+
+        boolean add(int id) {
+            if (ids != null) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return false;
+                }
+                pos = -pos - 1;
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+                }
+                System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+                ids[pos] = id;
+                size++;
+                if (size > ARRAY_MAX) {
+                    toChunks();
+                }
+                return true;
+            }
+            if (!addToChunk(id)) {
+                return false;
+            }
+            size++;
+            return true;
+        }
+
+        boolean remove(int id) {
+            if (ids != null) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos < 0) {
+                    return false;
+                }
+                System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+                size--;
+                return true;
+            }
+            int c = findChunk(id >>> 16);
+            if (c < 0) {
+                return false;
+            }
+            char low = (char) id;
+            if (bitmaps[c] != null) {
+                long bit = 1L << low;
+                if ((bitmaps[c][low >>> 6] & bit) == 0) {
+                    return false;
+                }
+                bitmaps[c][low >>> 6] &= ~bit;
+                if (--counts[c] < ARRAY_MAX / 2) {
+                    lows[c] = bitmapToArray(bitmaps[c], counts[c]);
+                    bitmaps[c] = null;
+                }
+            } else {
+                int pos = Arrays.binarySearch(lows[c], 0, counts[c], low);
+                if (pos < 0) {
+                    return false;
+                }
+                System.arraycopy(lows[c], pos + 1, lows[c], pos, counts[c] - pos - 1);
+                counts[c]--;
+            }
+            if (counts[c] == 0) {
+                removeChunk(c);
+            }
+            size--;
+            if (size < ARRAY_MAX / 2) {
+                ids = toArray();
+                keys = null;
+                lows = null;
+                bitmaps = null;
+                counts = null;
+                chunks = 0;
+            }
+            return true;
+        }
+
+        // Add every id of a sorted, duplicate-free batch
+        void addAll(int[] batch) {
+            if (ids == null) {
+                for (int id : batch) {
+                    add(id);
+                }
+                return;
+            }
+            int[] merged = new int[size + batch.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < size || j < batch.length) {
+                if (j == batch.length || (i < size && ids[i] < batch[j])) {
+                    merged[n++] = ids[i++];
+                } else if (i == size || batch[j] < ids[i]) {
+                    merged[n++] = batch[j++];
+                } else {
+                    merged[n++] = ids[i++];          // In both: keep one
+                    j++;
+                }
+            }
+            ids = merged;
+            size = n;
+            if (size > ARRAY_MAX) {
+                toChunks();
+            }
+        }
+
+        // Remove every id of a sorted, duplicate-free batch
+        void removeAll(int[] batch) {
+            int start = 0;
+            while (ids == null && start < batch.length) {
+                remove(batch[start++]);             // Chunked form; may shrink back to array form
+            }
+            if (ids == null) {
+                return;
+            }
+            int n = 0;
+            for (int i = 0, j = start; i < size; i++) {
+                while (j < batch.length && batch[j] < ids[i]) {
+                    j++;
+                }
+                if (j == batch.length || batch[j] != ids[i]) {
+                    ids[n++] = ids[i];
+                }
+            }
+            size = n;
+        }
+
+        // Visit every id in increasing order
+        void forEach(IntConsumer action) {
+            if (ids != null) {
+                for (int i = 0; i < size; i++) {
+                    action.accept(ids[i]);
+                }
+                return;
+            }
+            for (int c = 0; c < chunks; c++) {
+                int high = keys[c] << 16;
+                if (bitmaps[c] != null) {
+                    long[] words = bitmaps[c];
+                    for (int w = 0; w < words.length; w++) {
+                        for (long word = words[w]; word != 0; word &= word - 1) {
+                            action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        }
+                    }
+                } else {
+                    for (int k = 0; k < counts[c]; k++) {
+                        action.accept(high | lows[c][k]);
+                    }
+                }
+            }
+        }
+
+        int[] toArray() {
+            if (ids != null) {
+                return Arrays.copyOf(ids, size);
+            }
+            int[] result = new int[size];
+            int[] n = {0};
+            forEach(id -> result[n[0]++] = id);
+            return result;
+        }
+
+        // Approximate heap bytes: 16-byte array headers plus payload
+        long bytes() {
+            if (ids != null) {
+                return 16 + 4L * ids.length;
+            }
+            long total = 4 * 16 + 2L * keys.length + 8L * lows.length + 4L * counts.length;
+            for (int c = 0; c < chunks; c++) {
+                total += bitmaps[c] != null ? 16 + 8L * bitmaps[c].length : 16 + 2L * lows[c].length;
+            }
+            return total;
+        }
+
+        // Ids in both sets, increasing
+        static int[] intersect(FollowSet a, FollowSet b) {
+            FollowSet small = a.size <= b.size ? a : b;
+            FollowSet large = small == a ? b : a;
+            int[] result = new int[small.size];
+            int n = 0;
+            if (small.ids != null && large.ids != null && large.size <= 32L * small.size) {
+                for (int i = 0, j = 0; i < small.size && j < large.size; ) {   // Linear merge
+                    if (small.ids[i] < large.ids[j]) {
+                        i++;
+                    } else if (small.ids[i] > large.ids[j]) {
+                        j++;
+                    } else {
+                        result[n++] = small.ids[i];
+                        i++;
+                        j++;
+                    }
+                }
+                return Arrays.copyOf(result, n);
+            }
+            int[] count = {0};
+            small.forEach(id -> {                                            // Probe the larger set
+                if (large.contains(id)) result[count[0]++] = id;
+            });
+            return Arrays.copyOf(result, count[0]);
+        }
+
+        private int findChunk(int high) {
+            int lo = 0;
+            int hi = chunks - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] < high) {
+                    lo = mid + 1;
+                } else if (keys[mid] > high) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+
+        private boolean addToChunk(int id) {
+            int c = findChunk(id >>> 16);
+            char low = (char) id;
+            if (c < 0) {
+                c = -c - 1;
+                insertChunk(c, (char) (id >>> 16));
+            }
+            if (bitmaps[c] != null) {
+                long bit = 1L << low;
+                if ((bitmaps[c][low >>> 6] & bit) != 0) {
+                    return false;
+                }
+                bitmaps[c][low >>> 6] |= bit;
+                counts[c]++;
+                return true;
+            }
+            int pos = Arrays.binarySearch(lows[c], 0, counts[c], low);
+            if (pos >= 0) {
+                return false;
+            }
+            pos = -pos - 1;
+            if (counts[c] == ARRAY_MAX) {                                    // Array container full
+                long[] words = new long[1024];
+                for (int k = 0; k < counts[c]; k++) {
+                    words[lows[c][k] >>> 6] |= 1L << lows[c][k];
+                }
+                words[low >>> 6] |= 1L << low;
+                bitmaps[c] = words;
+                lows[c] = null;
+                counts[c]++;
+                return true;
+            }
+            if (counts[c] == lows[c].length) {
+                lows[c] = Arrays.copyOf(lows[c], Math.min(ARRAY_MAX, lows[c].length * 2));
+            }
+            System.arraycopy(lows[c], pos, lows[c], pos + 1, counts[c] - pos);
+            lows[c][pos] = low;
+            counts[c]++;
+            return true;
+        }
+
+        private void insertChunk(int c, char high) {
+            if (chunks == keys.length) {
+                int capacity = Math.max(4, chunks * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                lows = Arrays.copyOf(lows, capacity);
+                bitmaps = Arrays.copyOf(bitmaps, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            System.arraycopy(keys, c, keys, c + 1, chunks - c);
+            System.arraycopy(lows, c, lows, c + 1, chunks - c);
+            System.arraycopy(bitmaps, c, bitmaps, c + 1, chunks - c);
+            System.arraycopy(counts, c, counts, c + 1, chunks - c);
+            keys[c] = high;
+            lows[c] = new char[4];
+            bitmaps[c] = null;
+            counts[c] = 0;
+            chunks++;
+        }
+
+        private void removeChunk(int c) {
+            System.arraycopy(keys, c + 1, keys, c, chunks - c - 1);
+            System.arraycopy(lows, c + 1, lows, c, chunks - c - 1);
+            System.arraycopy(bitmaps, c + 1, bitmaps, c, chunks - c - 1);
+            System.arraycopy(counts, c + 1, counts, c, chunks - c - 1);
+            chunks--;
+            lows[chunks] = null;
+            bitmaps[chunks] = null;
+        }
+
+        // Convert the sorted int[] into chunks (called once the array form outgrows ARRAY_MAX)
+        private void toChunks() {
+            int[] all = ids;
+            int n = size;
+            ids = null;
+            keys = new char[4];
+            lows = new char[4][];
+            bitmaps = new long[4][];
+            counts = new int[4];
+            chunks = 0;
+            for (int i = 0; i < n; i++) {
+                addToChunk(all[i]);
+            }
+        }
+
+        private static char[] bitmapToArray(long[] words, int count) {
+            char[] result = new char[Math.max(4, count)];
+            int n = 0;
+            for (int w = 0; w < words.length; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    result[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                }
+            }
+            return result;
+        }
+    }
+
+    private static int timeStamp = 0; // Global timestamp to track tweet posting order
+
+    // User with a compact follow set (self not stored) and a linked list of tweets
+    private class User {
+        int id;                                   // Unique user ID
+        FollowSet followed = new FollowSet();     // Users this user follows, excluding self
+        Tweet tweetHead;                          // Head of the linked list of user's tweets
+
+        User(int id) {
+            this.id = id;
+        }
+    }
+
+    // Tweet class to represent each tweet
+    private class Tweet {
+        int id;        // Tweet ID
+        int time;      // Timestamp of when tweet was posted
+        Tweet next;    // Pointer to next tweet in user's tweet list
+
+        Tweet(int id, Tweet next) {
+            this.id = id;
+            this.time = timeStamp++;
+            this.next = next;
+        }
+    }
+
+    private Map<Integer, User> userMap; // Maps user IDs to User objects
+
+    public CompactGraphTwitter() {
+        userMap = new HashMap<>();
+    }
+
+    /** Compose a new tweet. */
+    public void postTweet(int userId, int tweetId) {
+        User user = getOrCreate(userId);
+        user.tweetHead = new Tweet(tweetId, user.tweetHead);
+    }
+
+    /** Retrieve the 10 most recent tweet IDs in the user's news feed, most recent first. */
+    public List<Integer> getNewsFeed(int userId) {
+        List<Integer> newsFeed = new ArrayList<>(10);
+        User user = userMap.get(userId);
+        if (user == null) {
+            return newsFeed;
+        }
+        PriorityQueue<Tweet> tweetHeap = new PriorityQueue<>(user.followed.size() + 1, (a, b) -> b.time - a.time);
+        if (user.tweetHead != null) {
+            tweetHeap.add(user.tweetHead);                 // Own tweets (implicit self-follow)
+        }
+        user.followed.forEach(followeeId -> {
+            User followee = userMap.get(followeeId);
+            if (followee != null && followee.tweetHead != null) {
+                tweetHeap.add(followee.tweetHead);
+            }
+        });
+        while (!tweetHeap.isEmpty() && newsFeed.size() < 10) {
+            Tweet tweet = tweetHeap.poll();
+            newsFeed.add(tweet.id);
+            if (tweet.next != null) {
+                tweetHeap.add(tweet.next);
+            }
+        }
+        return newsFeed;
+    }
+
+    /** Follower follows a followee. */
+    public void follow(int followerId, int followeeId) {
+        getOrCreate(followeeId);
+        User follower = getOrCreate(followerId);
+        if (followerId != followeeId) {
+            follower.followed.add(followeeId);
+        }
+    }
+
+    /** Follower unfollows a followee. */
+    public void unfollow(int followerId, int followeeId) {
+        User follower = userMap.get(followerId);
+        if (follower != null) {
+            follower.followed.remove(followeeId);
+        }
+    }
+
+    /** Follower follows every user in followeeIds (any order, duplicates allowed). */
+    public void followAll(int followerId, int[] followeeIds) {
+        int[] batch = sortedWithout(followeeIds, followerId);
+        for (int followeeId : batch) {
+            getOrCreate(followeeId);
+        }
+        getOrCreate(followerId).followed.addAll(batch);
+    }
+
+    /** Follower unfollows every user in followeeIds (any order, duplicates allowed). */
+    public void unfollowAll(int followerId, int[] followeeIds) {
+        User follower = userMap.get(followerId);
+        if (follower != null) {
+            follower.followed.removeAll(sortedWithout(followeeIds, followerId));
+        }
+    }
+
+    /** Users followed by both userA and userB, in increasing id order. */
+    public int[] mutualFollows(int userA, int userB) {
+        User a = userMap.get(userA);
+        User b = userMap.get(userB);
+        if (a == null || b == null) {
+            return new int[0];
+        }
+        return FollowSet.intersect(a.followed, b.followed);
+    }
+
+    // Approximate heap bytes of all follow sets
+    long followBytes() {
+        long total = 0;
+        for (User user : userMap.values()) {
+            total += user.followed.bytes();
+        }
+        return total;
+    }
+
+    private User getOrCreate(int userId) {
+        return userMap.computeIfAbsent(userId, User::new);
+    }
+
+    // Sorted copy of ids without duplicates and without self
+    private static int[] sortedWithout(int[] ids, int self) {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (sorted[i] != self && (n == 0 || sorted[n - 1] != sorted[i])) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, n);
+    }
+
+    // Benchmark: bytes per follow edge against Twitter's HashSet, plus feed and mutual-follow checks
+    public static void main(String[] args) {
+        final int users = 100_000;
+        Random random = new Random(23);
+        int[][] follows = new int[users][];
+        long edges = 0;
+        for (int u = 0; u < users; u++) {
+            // Most users follow 10-70 accounts; 50 power users follow 20k-60k (chunked form)
+            int count = u % 2_000 == 0 ? 20_000 + random.nextInt(40_000) : 10 + random.nextInt(60);
+            follows[u] = new int[count];
+            for (int f = 0; f < count; f++) {
+                double x = random.nextDouble();
+                follows[u][f] = (int) (users * x * x);          // Popular accounts have small ids
+            }
+            edges += count;
+        }
+
+        long before = usedMemory();
+        Twitter twitter = new Twitter();
+        for (int u = 0; u < users; u++) {
+            for (int followee : follows[u]) twitter.follow(u, followee);
+        }
+        long hashSetBytes = usedMemory() - before;
+
+        before = usedMemory();
+        CompactGraphTwitter compact = new CompactGraphTwitter();
+        for (int u = 0; u < users; u++) {
+            if (u % 2 == 0) {
+                compact.followAll(u, follows[u]);               // Bulk path
+            } else {
+                for (int followee : follows[u]) compact.follow(u, followee);
+            }
+        }
+        long compactBytes = usedMemory() - before;
+        System.out.printf("%d follow calls: HashSet graph %.1f bytes/edge, compact graph %.1f bytes/edge"
+                        + " (follow sets alone %.1f bytes/edge)%n", edges, (double) hashSetBytes / edges,
+                (double) compactBytes / edges, (double) compact.followBytes() / edges);
+
+        // Feeds must match Twitter exactly
+        for (int i = 0; i < 500_000; i++) {
+            int author = random.nextInt(users);
+            twitter.postTweet(author, i);
+            compact.postTweet(author, i);
+        }
+        long twitterNs = 0;
+        long compactNs = 0;
+        for (int i = 0; i < 40_000; i++) {
+            int reader = i % 20 == 0 ? (random.nextInt(50) * 2_000) : random.nextInt(users);
+            long start = System.nanoTime();
+            List<Integer> expected = twitter.getNewsFeed(reader);
+            long mid = System.nanoTime();
+            List<Integer> actual = compact.getNewsFeed(reader);
+            long end = System.nanoTime();
+            if (!expected.equals(actual)) throw new AssertionError("feed of " + reader + " differs");
+            if (i >= 10_000) {
+                twitterNs += mid - start;
+                compactNs += end - mid;
+            }
+        }
+        System.out.printf("getNewsFeed (5%% power users): HashSet %.0f ns, compact %.0f ns, feeds identical%n",
+                twitterNs / 30_000.0, compactNs / 30_000.0);
+
+        // Mutual follows against a HashSet retainAll, and bulk unfollow
+        int[] mutual = compact.mutualFollows(0, 2_000);
+        Set<Integer> expected = new HashSet<>();
+        for (int id : follows[0]) expected.add(id);
+        Set<Integer> other = new HashSet<>();
+        for (int id : follows[2_000]) other.add(id);
+        expected.retainAll(other);
+        expected.remove(0);
+        expected.remove(2_000);
+        if (mutual.length != expected.size()) throw new AssertionError("mutual follows differ");
+        for (int id : mutual) if (!expected.contains(id)) throw new AssertionError("unexpected mutual " + id);
+
+        // Single unfollows on a chunked set, checked against a HashSet and Twitter's feed
+        FollowSet chunked = compact.userMap.get(2_000).followed;
+        other.remove(2_000);
+        for (int i = 0; i < 200; i++) {
+            if (chunked.ids != null) throw new AssertionError("user 2000 left chunked form early");
+            int followee = follows[2_000][random.nextInt(follows[2_000].length)];
+            compact.unfollow(2_000, followee);
+            twitter.unfollow(2_000, followee);
+            other.remove(followee);
+            if (chunked.contains(followee) || chunked.size() != other.size()) {
+                throw new AssertionError("unfollow(2000, " + followee + "): size " + chunked.size()
+                        + ", want " + other.size());
+            }
+        }
+        if (!compact.getNewsFeed(2_000).equals(twitter.getNewsFeed(2_000))) {
+            throw new AssertionError("feed of 2000 differs after unfollows");
+        }
+
+        compact.unfollowAll(0, follows[0]);
+        int left = compact.userMap.get(0).followed.size();
+        if (left != 0) throw new AssertionError("after unfollowAll user 0 still follows " + left);
+        System.out.println("mutualFollows(0, 2000) = " + mutual.length + " accounts (matches HashSet retainAll);"
+                + " single unfollows on a chunked set match; after unfollowAll user 0 follows " + left);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
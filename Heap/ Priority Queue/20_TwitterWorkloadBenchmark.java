@@ -0,0 +1,325 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+public class TwitterWorkloadBenchmark {
+    // Problem: Benchmark Harness for Twitter Implementations under Realistic Skew
+    // Uniform random users hide the cases that matter for a social feed: a few accounts have most of
+    // the followers, a few users post most of the tweets, and some users follow thousands of accounts.
+    // Build a harness that:
+    // - Generates a power-law follower graph (skewed in-degree and out-degree) and Zipfian posting and
+    //   reading rates.
+    // - Turns them into one fixed trace of postTweet / follow / unfollow / getNewsFeed operations.
+    // - Replays the same trace against any implementation and reports throughput, per-operation
+    //   latency percentiles and allocation rate, so pull, push and hybrid feeds compare fairly.
+    // DSA Pattern: Inverse-CDF Sampling (Binary Search over a Prefix Sum) + Trace Replay
+    // Approach:
+    // 1. Zipf(n, s): the probability of rank r is proportional to 1 / r^s. Precompute the cumulative
+    //    weights once; a sample is a binary search for u * total in the prefix sums (O(log n)).
+    // 2. Graph: each user's out-degree is Pareto distributed (min 10, capped), and each followee is a
+    //    Zipf-distributed popularity rank mapped through a random permutation, so popular accounts are
+    //    not simply the small ids.
+    // 3. Trace: int arrays kind[], a[], b[] (no objects per operation). Authors and readers are Zipf
+    //    distributed over their own permutations; unfollow removes one of the follower's generated
+    //    edges; follow adds a fresh Zipf-chosen edge.
+    // 4. Replay: the graph is loaded untimed, the first part of the trace warms up the JIT, then every
+    //    remaining operation is timed individually with System.nanoTime. Allocation comes from the
+    //    HotSpot per-thread allocation counter (com.sun.management.ThreadMXBean).
+    // 5. Every implementation folds the feeds it returns into a checksum; matching checksums show that
+    //    all strategies produced the same feeds for the same trace.
+    // 6. main() compares pull (Twitter), push (HybridFeedTwitter with no celebrities), hybrid
+    //    (HybridFeedTwitter), ring-buffer storage and the compact follow graph. Compile together with
+    //    05_DesignTwitter.java, 15_HybridFeedTwitter.java, 17_RingBufferTwitter.java and
+    //    19_CompactGraphTwitter.java; needs JDK 19+ (Thread.threadId).
+    // Key Points to Remember:
+    // - Fix the seed: every implementation must see exactly the same graph and trace.
+    // - Percentiles, not averages: the fan-in of heavy followers shows up only in p99 and above.
+    // - Per-operation timing includes ~20-30 ns of nanoTime overhead; it matters only for O(1) ops.
+    // - Allocation rate is bytes allocated by the replay thread divided by replay time; it exposes
+    //   per-tweet and per-feed garbage that latency numbers hide until GC pauses appear.
+    // Time Complexity:
+    // - Generation: O(E log n + T log n) for E edges and T trace operations.
+    // - Replay: the sum of the implementation's operation costs.
+    // Space Complexity: O(n + E + T) for the generated graph and trace.
+
+    // The operations every compared implementation provides
+    interface TwitterApi {
+        void postTweet(int userId, int tweetId);
+        List<Integer> getNewsFeed(int userId);
+        void follow(int followerId, int followeeId);
+        void unfollow(int followerId, int followeeId);
+    }
+
+    private static final int POST = 0;
+    private static final int FEED = 1;
+    private static final int FOLLOW = 2;
+    private static final int UNFOLLOW = 3;
+    private static final String[] OPERATION_NAMES = {"post", "feed", "follow", "unfollow"};
+
+    // Zipf-distributed ranks in [0, n), sampled by binary search over cumulative weights
+    static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double total = 0;
+            for (int r = 0; r < n; r++) {
+                total += 1.0 / Math.pow(r + 1, exponent);
+                cumulative[r] = total;
+            }
+        }
+
+        int sample(Random random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int lo = 0;
+            int hi = cumulative.length - 1;
+            while (lo < hi) {                            // First rank whose cumulative weight >= target
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] < target) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    // Generated follower graph plus the operation trace to replay on top of it
+    static final class Workload {
+        final int users;
+        final int[][] follows;          // follows[u] = accounts u follows initially
+        final int[] kind;               // POST, FEED, FOLLOW or UNFOLLOW
+        final int[] a;                  // User performing the operation
+        final int[] b;                  // Tweet id or followee
+
+        Workload(int users, int[][] follows, int[] kind, int[] a, int[] b) {
+            this.users = users;
+            this.follows = follows;
+            this.kind = kind;
+            this.a = a;
+            this.b = b;
+        }
+
+        long edges() {
+            long edges = 0;
+            for (int[] row : follows) edges += row.length;
+            return edges;
+        }
+    }
+
+    // Power-law graph and a Zipfian post/feed/follow/unfollow trace; percentages must sum to 100
+    static Workload generate(int users, int operations, int postPercent, int feedPercent,
+                             int followPercent, long seed) {
+        Random random = new Random(seed);
+        int[] popularity = permutation(users, random);  // Rank -> user, for being followed
+        int[] activity = permutation(users, random);    // Rank -> user, for posting
+        int[] readers = permutation(users, random);     // Rank -> user, for reading
+        Zipf followees = new Zipf(users, 1.0);
+        Zipf authors = new Zipf(users, 1.1);
+        Zipf feeds = new Zipf(users, 0.8);
+
+        int[][] follows = new int[users][];
+        for (int u = 0; u < users; u++) {
+            double pareto = 10 / Math.pow(1 - random.nextDouble(), 1 / 1.2);   // Min 10, alpha 1.2
+            int degree = (int) Math.min(pareto, Math.min(5_000, users - 1));
+            follows[u] = new int[degree];
+            for (int f = 0; f < degree; f++) {
+                follows[u][f] = popularity[followees.sample(random)];
+            }
+        }
+
+        int[] kind = new int[operations];
+        int[] a = new int[operations];
+        int[] b = new int[operations];
+        for (int i = 0; i < operations; i++) {
+            int choice = random.nextInt(100);
+            if (choice < postPercent) {
+                kind[i] = POST;
+                a[i] = activity[authors.sample(random)];
+                b[i] = i;
+            } else if (choice < postPercent + feedPercent) {
+                kind[i] = FEED;
+                a[i] = readers[feeds.sample(random)];
+            } else if (choice < postPercent + feedPercent + followPercent) {
+                kind[i] = FOLLOW;
+                a[i] = random.nextInt(users);
+                b[i] = popularity[followees.sample(random)];
+            } else {
+                kind[i] = UNFOLLOW;
+                a[i] = random.nextInt(users);
+                int[] row = follows[a[i]];
+                b[i] = row.length == 0 ? a[i] : row[random.nextInt(row.length)];
+            }
+        }
+        return new Workload(users, follows, kind, a, b);
+    }
+
+    // Results of replaying one workload against one implementation
+    static final class Result {
+        final String name;
+        final double opsPerSecond;
+        final double allocatedMBPerSecond;       // NaN when the JVM cannot count allocations
+        final double allocatedBytesPerOp;
+        final long[][] latencies;                // Sorted latencies per operation kind
+        final long feedChecksum;
+
+        Result(String name, double opsPerSecond, double allocatedMBPerSecond, double allocatedBytesPerOp,
+               long[][] latencies, long feedChecksum) {
+            this.name = name;
+            this.opsPerSecond = opsPerSecond;
+            this.allocatedMBPerSecond = allocatedMBPerSecond;
+            this.allocatedBytesPerOp = allocatedBytesPerOp;
+            this.latencies = latencies;
+            this.feedChecksum = feedChecksum;
+        }
+
+        long percentile(int kind, double p) {
+            long[] sorted = latencies[kind];
+            return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+        }
+    }
+
+    // Load the graph untimed, warm up on the first warmup operations, then time the rest
+    static Result replay(String name, TwitterApi twitter, Workload workload, int warmup) {
+        for (int u = 0; u < workload.users; u++) {
+            for (int followee : workload.follows[u]) twitter.follow(u, followee);
+        }
+        long checksum = 0;
+        for (int i = 0; i < warmup; i++) {
+            checksum = apply(twitter, workload, i, checksum);
+        }
+
+        int measured = workload.kind.length - warmup;
+        long[] latency = new long[measured];
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = warmup; i < workload.kind.length; i++) {
+            long begin = System.nanoTime();
+            checksum = apply(twitter, workload, i, checksum);
+            latency[i - warmup] = System.nanoTime() - begin;
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        long[][] byKind = new long[OPERATION_NAMES.length][];
+        for (int k = 0; k < byKind.length; k++) {
+            int n = 0;
+            long[] samples = new long[measured];
+            for (int i = 0; i < measured; i++) {
+                if (workload.kind[warmup + i] == k) samples[n++] = latency[i];
+            }
+            byKind[k] = Arrays.copyOf(samples, n);
+            Arrays.sort(byKind[k]);
+        }
+        boolean counted = allocatedBefore >= 0;
+        return new Result(name, measured * 1e9 / elapsed,
+                counted ? allocated / 1e6 / (elapsed / 1e9) : Double.NaN,
+                counted ? (double) allocated / measured : Double.NaN, byKind, checksum);
+    }
+
+    private static long apply(TwitterApi twitter, Workload workload, int i, long checksum) {
+        switch (workload.kind[i]) {
+            case POST:
+                twitter.postTweet(workload.a[i], workload.b[i]);
+                return checksum;
+            case FEED:
+                for (int tweetId : twitter.getNewsFeed(workload.a[i])) {
+                    checksum = checksum * 31 + tweetId;
+                }
+                return checksum * 31 + 1;                 // Feed boundary
+            case FOLLOW:
+                twitter.follow(workload.a[i], workload.b[i]);
+                return checksum;
+            default:
+                twitter.unfollow(workload.a[i], workload.b[i]);
+                return checksum;
+        }
+    }
+
+    // Bytes allocated so far by this thread, or -1 if the JVM does not expose the counter
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().threadId());
+        }
+        return -1;
+    }
+
+    private static int[] permutation(int n, Random random) {
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++) p[i] = i;
+        for (int i = n - 1; i > 0; i--) {            // Fisher-Yates shuffle
+            int j = random.nextInt(i + 1);
+            int t = p[i];
+            p[i] = p[j];
+            p[j] = t;
+        }
+        return p;
+    }
+
+    static void print(List<Result> results) {
+        System.out.printf("%-10s %10s %10s %10s | %s%n", "strategy", "ops/s", "alloc MB/s", "bytes/op",
+                "p50 / p99 / p99.9 latency in us for post, feed, follow, unfollow");
+        for (Result r : results) {
+            StringBuilder line = new StringBuilder();
+            for (int k = 0; k < OPERATION_NAMES.length; k++) {
+                line.append(String.format(" %s %.1f/%.1f/%.1f", OPERATION_NAMES[k], r.percentile(k, 0.5) / 1e3,
+                        r.percentile(k, 0.99) / 1e3, r.percentile(k, 0.999) / 1e3));
+            }
+            System.out.printf("%-10s %10.0f %10.1f %10.0f |%s%n", r.name, r.opsPerSecond,
+                    r.allocatedMBPerSecond, r.allocatedBytesPerOp, line);
+        }
+        Result reference = results.get(0);
+        for (Result r : results) {
+            if (r.feedChecksum != reference.feedChecksum) {
+                throw new AssertionError(r.name + " returned different feeds than " + reference.name
+                        + " (checksum " + r.feedChecksum + ", want " + reference.feedChecksum + ")");
+            }
+        }
+        System.out.println("all strategies returned identical feeds");
+    }
+
+    public static void main(String[] args) {
+        Workload workload = generate(20_000, 600_000, 30, 60, 5, 2024);
+        System.out.printf("workload: %d users, %d edges, %d operations (30%% post, 60%% feed, 5%% follow,"
+                + " 5%% unfollow)%n", workload.users, workload.edges(), workload.kind.length);
+        int warmup = 100_000;
+
+        List<Result> results = new ArrayList<>();
+        Twitter pull = new Twitter();
+        results.add(replay("pull", new TwitterApi() {
+            public void postTweet(int userId, int tweetId) { pull.postTweet(userId, tweetId); }
+            public List<Integer> getNewsFeed(int userId) { return pull.getNewsFeed(userId); }
+            public void follow(int followerId, int followeeId) { pull.follow(followerId, followeeId); }
+            public void unfollow(int followerId, int followeeId) { pull.unfollow(followerId, followeeId); }
+        }, workload, warmup));
+        results.add(replay("push", hybrid(Integer.MAX_VALUE), workload, warmup));
+        results.add(replay("hybrid", hybrid(1_000), workload, warmup));
+        RingBufferTwitter ring = new RingBufferTwitter(16, false);
+        results.add(replay("ring", new TwitterApi() {
+            public void postTweet(int userId, int tweetId) { ring.postTweet(userId, tweetId); }
+            public List<Integer> getNewsFeed(int userId) { return ring.getNewsFeed(userId); }
+            public void follow(int followerId, int followeeId) { ring.follow(followerId, followeeId); }
+            public void unfollow(int followerId, int followeeId) { ring.unfollow(followerId, followeeId); }
+        }, workload, warmup));
+        CompactGraphTwitter compact = new CompactGraphTwitter();
+        results.add(replay("compact", new TwitterApi() {
+            public void postTweet(int userId, int tweetId) { compact.postTweet(userId, tweetId); }
+            public List<Integer> getNewsFeed(int userId) { return compact.getNewsFeed(userId); }
+            public void follow(int followerId, int followeeId) { compact.follow(followerId, followeeId); }
+            public void unfollow(int followerId, int followeeId) { compact.unfollow(followerId, followeeId); }
+        }, workload, warmup));
+        print(results);
+    }
+
+    // Hybrid feed; a threshold of Integer.MAX_VALUE never marks anyone a celebrity (pure push)
+    private static TwitterApi hybrid(int celebrityThreshold) {
+        HybridFeedTwitter twitter = new HybridFeedTwitter(celebrityThreshold);
+        return new TwitterApi() {
+            public void postTweet(int userId, int tweetId) { twitter.postTweet(userId, tweetId); }
+            public List<Integer> getNewsFeed(int userId) { return twitter.getNewsFeed(userId); }
+            public void follow(int followerId, int followeeId) { twitter.follow(followerId, followeeId); }
+            public void unfollow(int followerId, int followeeId) { twitter.unfollow(followerId, followeeId); }
+        };
+    }
+}
@@ -0,0 +1,606 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+public class DurableTwitter implements AutoCloseable {
+    // Problem: Design Twitter with Crash-Safe Persistence
+    // Twitter keeps users, follows and tweets only on the heap, so a restart loses everything. Make the
+    // state durable without giving up the in-memory read path:
+    // - Every postTweet/follow/unfollow is appended to a binary write-ahead log (WAL) before it counts
+    //   as done, and log writes are forced to disk in groups (group commit) instead of one fsync each.
+    // - Periodically the whole state is written to a snapshot, so recovery loads the snapshot and
+    //   replays only the WAL records after it.
+    // - A torn tail (crash in the middle of a write) is detected and cut off.
+    // DSA Pattern: Append-Only Log + Checkpoint (Snapshot) + Replay; in memory the same HashMap,
+    // Linked List and Max-Heap as Twitter
+    // Record format (13 bytes): byte type | int a | int b | int crc32(type, a, b)
+    //   POST: a = userId, b = tweetId; FOLLOW / UNFOLLOW: a = followerId, b = followeeId.
+    // Files in the directory:
+    // - wal-<lsn>.log: records with log sequence numbers lsn, lsn + 1, ... (LSN = event number).
+    // - snapshot-<lsn>.bin: the state after the first lsn events, written to a temp file and renamed
+    //   atomically: int MAGIC | long lsn | int timeStamp | int users | per user (int id | int followed |
+    //   ids | int tweets | (int id, int time) newest first) | int crc32(everything before).
+    // Approach:
+    // 1. Write path: encode the event into the pending buffer. When the buffer holds groupCommit
+    //    records (or on sync/close), write it to the WAL and force it: one fsync per group. Then apply
+    //    the event in memory. Events are therefore visible to getNewsFeed before they are durable: the
+    //    rest of a group is served from memory while it is still only in the pending buffer. Only the
+    //    event whose write forces the group is applied after the force. After snapshotEvery events,
+    //    take a snapshot.
+    // 2. snapshot(): flush the WAL, write snapshot-<lsn>.bin and start a fresh wal-<lsn>.log. The
+    //    previous snapshot and the WAL files from its LSN on are kept until the next snapshot; anything
+    //    older is deleted.
+    // 3. Recovery (constructor): load the newest snapshot whose magic and CRC are valid (or the previous
+    //    one if the newest is damaged), then replay every WAL record with LSN >= the snapshot's LSN, in
+    //    file order; WAL files wholly before it are skipped unread. The first record that is incomplete
+    //    or fails its CRC ends the log: the file is truncated there.
+    // 4. An I/O error while writing the WAL or a snapshot marks the store failed: the WAL may hold part
+    //    of a group, so every later write or sync throws, and reopening the directory recovers the
+    //    durable state. The event that triggered the failed force is not applied, but the earlier
+    //    events of its group stay visible in memory until the reopen, which drops them.
+    // 5. main() measures ingest throughput for several group sizes against the in-memory Twitter
+    //    (compile together with 05_DesignTwitter.java), then recovers after a simulated crash.
+    // Key Points to Remember:
+    // - Tweet times are not logged: replaying events in LSN order assigns the same times again, and the
+    //   snapshot stores the clock.
+    // - Group commit trades latency for throughput: an acknowledged event is durable only after its
+    //   group is forced, so a power loss can drop up to groupCommit - 1 events. groupCommit = 1 makes
+    //   every call durable on return, and the only setting where reads never see an event that is not
+    //   yet durable.
+    // - Snapshot rename is atomic, so a crash during a snapshot leaves the previous snapshot and its
+    //   WAL intact; the old files are only deleted after the new snapshot is in place.
+    // - A snapshot that is damaged after the fact (bad disk block, partial copy) costs a longer replay
+    //   from the previous snapshot instead of the store.
+    // - Single-threaded, like Twitter; callers serialize access.
+    // - Edge cases: empty directory, a WAL without any snapshot, a corrupt newest snapshot (falls back
+    //   to the previous one and its WAL), a torn last record, a failed WAL write.
+    // Time Complexity:
+    // - postTweet/follow/unfollow: O(1) amortized plus one fsync per groupCommit events.
+    // - getNewsFeed: O(f log f) as in Twitter.
+    // - snapshot: O(u + t + f); recovery: O(snapshot + records after it).
+    // Space Complexity: O(u + t + f) in memory; on disk two snapshots plus the WAL since the older one.
+
+    private static final int RECORD = 13;                   // type + a + b + crc
+    private static final byte POST = 1;
+    private static final byte FOLLOW = 2;
+    private static final byte UNFOLLOW = 3;
+    private static final int MAGIC = 0x54575453;            // "TWTS"
+    private static final String WAL_PREFIX = "wal-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private int timeStamp = 0; // Global timestamp to track tweet posting order
+
+    // User class to represent each user in Twitter
+    private class User {
+        int id;                  // Unique user ID
+        Set<Integer> followed;   // Set of user IDs this user follows (self included)
+        Tweet tweetHead;         // Head of the linked list of user's tweets
+        int tweets;              // Length of the tweet list (for snapshots)
+
+        User(int id) {
+            this.id = id;
+            followed = new HashSet<>();
+            followed.add(id);    // User follows themselves
+        }
+    }
+
+    // Tweet class to represent each tweet
+    private class Tweet {
+        int id;        // Tweet ID
+        int time;      // Timestamp of when tweet was posted
+        Tweet next;    // Pointer to next tweet in user's tweet list
+
+        Tweet(int id, int time, Tweet next) {
+            this.id = id;
+            this.time = time;
+            this.next = next;
+        }
+    }
+
+    private final Map<Integer, User> userMap = new HashMap<>();   // Maps user IDs to User objects
+    private final Path directory;
+    private final int groupCommit;          // Records per fsync
+    private final long snapshotEvery;       // Events between snapshots; 0 disables snapshots
+    private final ByteBuffer pending;       // Encoded records not yet written
+    private final CRC32 crc = new CRC32();
+    private FileChannel wal;                // Active WAL file
+    private long lsn;                       // Events applied so far (next event's LSN)
+    private long snapshotLsn;               // LSN covered by the newest snapshot
+    private long syncs;                     // fsync calls on the WAL
+    private long replayed;                  // WAL records replayed during recovery
+    private long repairedBytes;             // Bytes cut off a torn WAL tail
+    private IOException failure;            // First WAL or snapshot write error; the store is failed
+
+    // Open (or create) the store in directory and recover its state
+    public DurableTwitter(Path directory, int groupCommit, long snapshotEvery) throws IOException {
+        if (groupCommit < 1 || snapshotEvery < 0) {
+            throw new IllegalArgumentException("groupCommit must be >= 1 and snapshotEvery >= 0");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.groupCommit = groupCommit;
+        this.snapshotEvery = snapshotEvery;
+        this.pending = ByteBuffer.allocate(groupCommit * RECORD);
+        recover();
+    }
+
+    /** Compose a new tweet (logged). */
+    public void postTweet(int userId, int tweetId) throws IOException {
+        write(POST, userId, tweetId);
+    }
+
+    /** Follower follows a followee (logged). */
+    public void follow(int followerId, int followeeId) throws IOException {
+        write(FOLLOW, followerId, followeeId);
+    }
+
+    /** Follower unfollows a followee (logged). */
+    public void unfollow(int followerId, int followeeId) throws IOException {
+        write(UNFOLLOW, followerId, followeeId);
+    }
+
+    /** Retrieve the 10 most recent tweet IDs in the user's news feed, as in Twitter. */
+    public List<Integer> getNewsFeed(int userId) {
+        List<Integer> newsFeed = new ArrayList<>(10);
+        User user = userMap.get(userId);
+        if (user == null) {
+            return newsFeed;
+        }
+        PriorityQueue<Tweet> tweetHeap = new PriorityQueue<>(user.followed.size(), (a, b) -> b.time - a.time);
+        for (int followeeId : user.followed) {
+            Tweet tweet = userMap.get(followeeId).tweetHead;
+            if (tweet != null) {
+                tweetHeap.add(tweet);
+            }
+        }
+        while (!tweetHeap.isEmpty() && newsFeed.size() < 10) {
+            Tweet tweet = tweetHeap.poll();
+            newsFeed.add(tweet.id);
+            if (tweet.next != null) {
+                tweetHeap.add(tweet.next);
+            }
+        }
+        return newsFeed;
+    }
+
+    // Write and force any pending records; every event so far is durable afterwards
+    public void sync() throws IOException {
+        checkNotFailed();
+        if (pending.position() == 0) {
+            return;
+        }
+        try {
+            pending.flip();
+            while (pending.hasRemaining()) {
+                wal.write(pending);
+            }
+            pending.clear();
+            wal.force(false);
+            syncs++;
+        } catch (IOException e) {
+            failure = e;                  // Part of the group may be on disk: stop accepting writes
+            throw e;
+        }
+    }
+
+    // Checkpoint: persist the full state; keep the previous snapshot and its WAL as a fallback
+    public void snapshot() throws IOException {
+        sync();
+        if (lsn == snapshotLsn) {
+            return;                       // The newest snapshot already covers every event
+        }
+        try {
+            writeSnapshot();
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        long previous = snapshotLsn;
+        Path target = directory.resolve(SNAPSHOT_PREFIX + lsn + ".bin");
+        Path temp = directory.resolve(SNAPSHOT_PREFIX + lsn + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(snapshotSize());
+        buffer.putInt(MAGIC).putLong(lsn).putInt(timeStamp).putInt(userMap.size());
+        for (User user : userMap.values()) {
+            buffer.putInt(user.id).putInt(user.followed.size());
+            for (int followeeId : user.followed) {
+                buffer.putInt(followeeId);
+            }
+            buffer.putInt(user.tweets);
+            for (Tweet t = user.tweetHead; t != null; t = t.next) {
+                buffer.putInt(t.id).putInt(t.time);
+            }
+        }
+        crc.reset();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        snapshotLsn = lsn;
+
+        wal.close();
+        openWal(lsn);
+        for (Path path : list(WAL_PREFIX, ".log")) {              // Not needed by either kept snapshot
+            if (lsnOf(path, WAL_PREFIX) < previous) Files.delete(path);
+        }
+        for (Path path : list(SNAPSHOT_PREFIX, ".bin")) {
+            if (lsnOf(path, SNAPSHOT_PREFIX) < previous) Files.delete(path);
+        }
+    }
+
+    public long syncCount() {
+        return syncs;
+    }
+
+    public long replayedRecords() {
+        return replayed;
+    }
+
+    public long repairedBytes() {
+        return repairedBytes;
+    }
+
+    // Close the WAL; a failed store closes without syncing (reopen to recover the durable state)
+    @Override
+    public void close() throws IOException {
+        try {
+            if (failure == null) {
+                sync();
+            }
+        } finally {
+            wal.close();
+        }
+    }
+
+    private void applyPost(int userId, int tweetId) {
+        User user = userMap.computeIfAbsent(userId, User::new);
+        user.tweetHead = new Tweet(tweetId, timeStamp++, user.tweetHead);
+        user.tweets++;
+    }
+
+    private void applyFollow(int followerId, int followeeId) {
+        userMap.computeIfAbsent(followeeId, User::new);
+        userMap.computeIfAbsent(followerId, User::new).followed.add(followeeId);
+    }
+
+    private void applyUnfollow(int followerId, int followeeId) {
+        User follower = userMap.get(followerId);
+        if (follower != null && followerId != followeeId) {
+            follower.followed.remove(followeeId);
+        }
+    }
+
+    private void apply(byte type, int a, int b) {
+        if (type == POST) applyPost(a, b);
+        else if (type == FOLLOW) applyFollow(a, b);
+        else applyUnfollow(a, b);
+    }
+
+    // Log the event, then apply it; if forcing its group fails, this event is not applied
+    private void write(byte type, int a, int b) throws IOException {
+        checkNotFailed();
+        int start = pending.position();
+        pending.put(type).putInt(a).putInt(b);
+        crc.reset();
+        crc.update(pending.array(), start, RECORD - 4);
+        pending.putInt((int) crc.getValue());
+        if (!pending.hasRemaining()) {
+            sync();                       // Force the group when it is full
+        }
+        apply(type, a, b);
+        lsn++;
+        if (snapshotEvery > 0 && lsn - snapshotLsn >= snapshotEvery) {
+            snapshot();
+        }
+    }
+
+    private void checkNotFailed() throws IOException {
+        if (failure != null) {
+            throw new IOException("store failed on an earlier write; reopen it to recover", failure);
+        }
+    }
+
+    // Newest valid snapshot, then every later WAL record; repairs a torn tail
+    private void recover() throws IOException {
+        List<Path> snapshots = list(SNAPSHOT_PREFIX, ".bin");
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            if (loadSnapshot(snapshots.get(i))) {
+                break;
+            }
+            userMap.clear();                                       // Corrupt: try an older one
+            timeStamp = 0;
+        }
+        lsn = snapshotLsn;
+        List<Path> logs = list(WAL_PREFIX, ".log");
+        long nextStart = lsn;
+        for (int i = 0; i < logs.size(); i++) {
+            Path path = logs.get(i);
+            long start = lsnOf(path, WAL_PREFIX);
+            if (i + 1 < logs.size() && lsnOf(logs.get(i + 1), WAL_PREFIX) <= lsn) {
+                continue;                                          // Wholly covered by the snapshot
+            }
+            if (start > lsn) {
+                throw new IOException("WAL gap: need LSN " + lsn + " but " + path.getFileName() + " starts later");
+            }
+            boolean torn = replay(path, start);
+            nextStart = Math.max(nextStart, lsn);
+            if (torn) {
+                for (int j = i + 1; j < logs.size(); j++) Files.delete(logs.get(j));   // Nothing after a tear
+                break;
+            }
+        }
+        openWal(nextStart);
+    }
+
+    // Replay records of one WAL file with LSN >= lsn; true if the file ended in a torn record
+    private boolean replay(Path path, long start) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, 1 << 20) / RECORD * RECORD + RECORD);
+            long position = 0;
+            long recordLsn = start;
+            while (position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                buffer.flip();
+                while (buffer.remaining() >= RECORD) {
+                    int offset = buffer.position();
+                    byte type = buffer.get();
+                    int a = buffer.getInt();
+                    int b = buffer.getInt();
+                    int stored = buffer.getInt();
+                    crc.reset();
+                    crc.update(buffer.array(), offset, RECORD - 4);
+                    if (stored != (int) crc.getValue() || type < POST || type > UNFOLLOW) {
+                        return truncate(channel, position + offset, size);
+                    }
+                    if (recordLsn >= lsn) {
+                        apply(type, a, b);
+                        lsn++;
+                        replayed++;
+                    }
+                    recordLsn++;
+                }
+                position += read - buffer.remaining();
+                if (read < RECORD || (buffer.remaining() > 0 && position + buffer.remaining() >= size)) {
+                    return truncate(channel, position, size);                  // Partial last record
+                }
+            }
+            return false;
+        }
+    }
+
+    private boolean truncate(FileChannel channel, long validBytes, long size) throws IOException {
+        repairedBytes += size - validBytes;
+        channel.truncate(validBytes);
+        channel.force(true);
+        return true;
+    }
+
+    private boolean loadSnapshot(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length < 24) {
+            return false;
+        }
+        crc.reset();
+        crc.update(bytes, 0, bytes.length - 4);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt(bytes.length - 4) != (int) crc.getValue() || buffer.getInt() != MAGIC) {
+            return false;
+        }
+        long snapshotOf = buffer.getLong();
+        timeStamp = buffer.getInt();
+        int users = buffer.getInt();
+        for (int u = 0; u < users; u++) {
+            User user = userMap.computeIfAbsent(buffer.getInt(), User::new);
+            for (int f = buffer.getInt(); f > 0; f--) {
+                user.followed.add(buffer.getInt());
+            }
+            user.tweets = buffer.getInt();
+            Tweet tail = null;
+            for (int t = 0; t < user.tweets; t++) {                   // Stored newest first
+                Tweet tweet = new Tweet(buffer.getInt(), buffer.getInt(), null);
+                if (tail == null) {
+                    user.tweetHead = tweet;
+                } else {
+                    tail.next = tweet;
+                }
+                tail = tweet;
+            }
+        }
+        snapshotLsn = snapshotOf;
+        return true;
+    }
+
+    private int snapshotSize() {
+        long size = 4 + 8 + 4 + 4 + 4;
+        for (User user : userMap.values()) {
+            size += 12 + 4L * user.followed.size() + 8L * user.tweets;
+        }
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("state too large for a single snapshot buffer");
+        }
+        return (int) size;
+    }
+
+    private void openWal(long startLsn) throws IOException {
+        wal = FileChannel.open(directory.resolve(WAL_PREFIX + startLsn + ".log"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Files with the given prefix and suffix, sorted by the LSN in their name
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path path : stream) paths.add(path);
+        }
+        paths.sort(Comparator.comparingLong(path -> lsnOf(path, prefix)));
+        return paths;
+    }
+
+    private static long lsnOf(Path path, String prefix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.lastIndexOf('.')));
+    }
+
+    // Benchmark: ingest throughput by group size vs. in-memory Twitter, then crash recovery
+    public static void main(String[] args) throws IOException {
+        final int users = 10_000;
+        final int events = 400_000;
+        Random random = new Random(31);
+        int[] kind = new int[events];
+        int[] a = new int[events];
+        int[] b = new int[events];
+        for (int i = 0; i < events; i++) {
+            kind[i] = i < events / 4 ? FOLLOW : random.nextInt(10) < 8 ? POST : random.nextInt(2) == 0 ? FOLLOW : UNFOLLOW;
+            a[i] = random.nextInt(users);
+            b[i] = kind[i] == POST ? i : random.nextInt(users);
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 7; round++) {                 // 2 warmup rounds, then best of 5
+            long start = System.nanoTime();
+            ingest(new Twitter(), kind, a, b, events);
+            if (round >= 2) best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("in-memory Twitter: %,10.0f events/s%n", events * 1e9 / best);
+        for (int round = 0; round < 2; round++) {                 // Warm up the durable write path
+            Path dir = Files.createTempDirectory("twitter-wal");
+            try (DurableTwitter store = new DurableTwitter(dir, 4_096, 0)) {
+                ingest(store, kind, a, b, events);
+            }
+        }
+
+        for (int group : new int[] {1, 16, 256, 4_096}) {
+            int n = group == 1 ? events / 20 : events;           // fsync per event is slow; use a prefix
+            best = Long.MAX_VALUE;
+            long syncs = 0;
+            for (int round = 0; round < 3; round++) {             // Best of 3, each into a fresh directory
+                Path dir = Files.createTempDirectory("twitter-wal");
+                long start = System.nanoTime();
+                try (DurableTwitter store = new DurableTwitter(dir, group, 0)) {
+                    ingest(store, kind, a, b, n);
+                    store.sync();
+                    best = Math.min(best, System.nanoTime() - start);
+                    syncs = store.syncCount();
+                }
+            }
+            System.out.printf("WAL, group commit %5d: %,10.0f events/s (%d fsyncs)%n", group, n * 1e9 / best, syncs);
+        }
+
+        // Recovery: full-log replay vs snapshot + tail, after a crash that tore the last record
+        Path dir = Files.createTempDirectory("twitter-wal");
+        DurableTwitter crashed = new DurableTwitter(dir, 256, 150_000);
+        ingest(crashed, kind, a, b, events);
+        crashed.sync();
+        List<List<Integer>> feeds = new ArrayList<>();
+        for (int u = 0; u < 100; u++) feeds.add(crashed.getNewsFeed(u));
+        crashed.wal.close();                                      // Process dies: no close(), no snapshot
+        List<Path> logs = crashed.list(WAL_PREFIX, ".log");
+        Path tail = logs.get(logs.size() - 1);
+        try (FileChannel channel = FileChannel.open(tail, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {POST, 0, 0, 0, 7, 0}));   // Half a record
+        }
+
+        try (DurableTwitter recovered = new DurableTwitter(dir, 256, 150_000)) {
+            checkFeeds(feeds, recovered);
+            System.out.printf("after crash: %d WAL records replayed on top of the snapshot, %d torn bytes cut,"
+                    + " feeds identical%n", recovered.replayedRecords(), recovered.repairedBytes());
+        }
+
+        Path full = Files.createTempDirectory("twitter-wal");
+        try (DurableTwitter store = new DurableTwitter(full, 256, 0)) {
+            ingest(store, kind, a, b, events);
+        }
+        long snapshotNs = Long.MAX_VALUE;
+        long replayNs = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {                 // Best of 5, alternating the two layouts
+            long start = System.nanoTime();
+            new DurableTwitter(dir, 256, 150_000).close();
+            long mid = System.nanoTime();
+            new DurableTwitter(full, 256, 0).close();
+            long end = System.nanoTime();
+            snapshotNs = Math.min(snapshotNs, mid - start);
+            replayNs = Math.min(replayNs, end - mid);
+        }
+        System.out.printf("recovery: snapshot + %d-record tail %d ms, full replay of %d records %d ms%n",
+                events % 150_000, snapshotNs / 1_000_000, events, replayNs / 1_000_000);
+
+        // A damaged newest snapshot falls back to the previous one and the WAL kept after it
+        List<Path> snapshots = crashed.list(SNAPSHOT_PREFIX, ".bin");
+        Path newest = snapshots.get(snapshots.size() - 1);
+        try (FileChannel channel = FileChannel.open(newest, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x55}), channel.size() / 2);
+        }
+        try (DurableTwitter recovered = new DurableTwitter(dir, 256, 150_000)) {
+            checkFeeds(feeds, recovered);
+            System.out.printf("damaged %s: %d WAL records replayed from the previous snapshot, feeds identical%n",
+                    newest.getFileName(), recovered.replayedRecords());
+        }
+
+        // A failed WAL write: the event that forces the group is not applied, its three group mates are
+        // visible in memory but were never durable, and the store refuses further writes
+        Path failing = Files.createTempDirectory("twitter-wal");
+        DurableTwitter store = new DurableTwitter(failing, 4, 0);
+        for (int i = 0; i < 3; i++) store.postTweet(1, i);
+        store.wal.close();                                        // The next group write fails
+        boolean failed = false;
+        try {
+            store.postTweet(1, 3);                                // Fills the group: forces it
+        } catch (IOException e) {
+            failed = true;
+        }
+        if (!failed || !store.getNewsFeed(1).equals(List.of(2, 1, 0))) {
+            throw new AssertionError("failed write: threw " + failed + ", feed " + store.getNewsFeed(1));
+        }
+        try {
+            store.follow(1, 2);
+            throw new AssertionError("a failed store accepted a write");
+        } catch (IOException expected) {
+            store.close();
+        }
+        try (DurableTwitter reopened = new DurableTwitter(failing, 4, 0)) {
+            if (!reopened.getNewsFeed(1).isEmpty()) {
+                throw new AssertionError("reopened feed " + reopened.getNewsFeed(1) + ", want []");
+            }
+            System.out.println("failed WAL write: the forcing event was not applied, its group mates [2, 1, 0]"
+                    + " were visible in memory but are gone after reopening; later writes refused");
+        }
+    }
+
+    private static void checkFeeds(List<List<Integer>> feeds, DurableTwitter recovered) {
+        for (int u = 0; u < feeds.size(); u++) {
+            if (!feeds.get(u).equals(recovered.getNewsFeed(u))) {
+                throw new AssertionError("feed of " + u + ": " + recovered.getNewsFeed(u) + ", want " + feeds.get(u));
+            }
+        }
+    }
+
+    // The same trace through the in-memory Twitter, kept out of main() so it is compiled on its own
+    private static void ingest(Twitter store, int[] kind, int[] a, int[] b, int n) {
+        for (int i = 0; i < n; i++) {
+            if (kind[i] == POST) store.postTweet(a[i], b[i]);
+            else if (kind[i] == FOLLOW) store.follow(a[i], b[i]);
+            else store.unfollow(a[i], b[i]);
+        }
+    }
+
+    private static void ingest(DurableTwitter store, int[] kind, int[] a, int[] b, int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            if (kind[i] == POST) store.postTweet(a[i], b[i]);
+            else if (kind[i] == FOLLOW) store.follow(a[i], b[i]);
+            else store.unfollow(a[i], b[i]);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+import java.util.*;
+
+public class IntDaryHeap {
+    // Problem: Growable d-ary Min-Heap of Primitive ints
+    // MinHeap (12_ImplementingHeap.java) has a fixed capacity ("Heap is full"), a recursive heapify, and a
+    // binary layout that reads one cache line per level. PriorityQueue<Integer> grows, but it boxes every
+    // element and compares through Comparable. Build a min-heap of ints with:
+    // - a configurable arity d (default 4): each node has d children, so the tree is log_d(n) deep;
+    // - iterative sift-up / sift-down that move a "hole" instead of swapping;
+    // - geometric growth of the backing array;
+    // - O(n) bulk construction with heapify(int[]);
+    // - fused pushPop(x) (push then pop) and replaceTop(x) (pop then push), each a single sift-down.
+    // DSA Pattern: d-ary Heap (array layout) + Floyd's Bottom-Up Heap Construction
+    // Approach:
+    // 1. Layout: the children of node i are d*i + 1 .. d*i + d and the parent of i is (i - 1) / d.
+    // 2. push(x): grow by 1.5x if full, then sift up from the new slot. Each step moves the parent down
+    //    into the hole and stops as soon as the parent is <= x. Writing x once at the end saves the
+    //    extra store that a swap makes per level.
+    // 3. pop(): take heap[0], then sift the last element down from the root. Each step finds the
+    //    smallest of up to d children and moves it up while it is smaller than the element.
+    // 4. heapify(values): copy values, then sift down every internal node from the last one,
+    //    (size - 2) / d, back to the root. Most nodes sit near the bottom, so the work is O(n).
+    // 5. pushPop(x): if the heap is empty or x <= top, x would be popped right back: return it untouched.
+    //    Otherwise return the top and sift x down from the root.
+    //    replaceTop(x): return the top and sift x down from the root, even when x is smaller.
+    // 6. main() benchmarks arity 2, 4 and 8 against MinHeap, MaxHeap (13_MaxHeap.java) and
+    //    PriorityQueue<Integer> (compile together with 12_ImplementingHeap.java and 13_MaxHeap.java).
+    // Key Points to Remember:
+    // - A larger d makes the heap shallower, so push does fewer moves and pop does fewer levels. Each
+    //   pop level compares d children, but they are adjacent in memory: d = 4 ints fit in 16 bytes and
+    //   usually share a cache line. Past d = 8 the extra comparisons outweigh the saved levels.
+    // - d = 2 is the classic binary heap: arity 2 with this class is a growable MinHeap.
+    // - pushPop never grows the array, and replaceTop never shrinks it: both are the fused form of a
+    //   push and a pop and cost one sift-down instead of a sift-up plus a sift-down.
+    // - peek/pop/replaceTop on an empty heap throw NoSuchElementException (as PriorityQueue.remove
+    //   does) instead of returning a sentinel like Integer.MAX_VALUE that could be a real element.
+    // - Edge cases: arity < 2 (rejected), empty heapify input, duplicates, growth from capacity 0.
+    // Time Complexity:
+    // - push: O(log_d n); pop / replaceTop / pushPop: O(d log_d n); peek: O(1).
+    // - heapify(int[]): O(n).
+    // Space Complexity: O(n); the array is at most 1.5x the peak size.
+
+    private static final int DEFAULT_ARITY = 4;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final int arity;    // Children per node
+    private int[] heap;         // heap[0] is the minimum
+    private int size;           // Number of elements
+
+    public IntDaryHeap() {
+        this(DEFAULT_ARITY, DEFAULT_CAPACITY);
+    }
+
+    public IntDaryHeap(int arity) {
+        this(arity, DEFAULT_CAPACITY);
+    }
+
+    public IntDaryHeap(int arity, int initialCapacity) {
+        if (arity < 2 || initialCapacity < 0) {
+            throw new IllegalArgumentException("arity must be >= 2 and initialCapacity >= 0");
+        }
+        this.arity = arity;
+        this.heap = new int[initialCapacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Smallest element, without removing it. */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("heap is empty");
+        }
+        return heap[0];
+    }
+
+    /** Insert value, growing the array if needed. */
+    public void push(int value) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(DEFAULT_CAPACITY, size + (size >> 1)));
+        }
+        siftUp(size++, value);
+    }
+
+    /** Remove and return the smallest element. */
+    public int pop() {
+        int top = peek();
+        int last = heap[--size];
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return top;
+    }
+
+    /** Push value, then pop the smallest element (which may be value itself). */
+    public int pushPop(int value) {
+        if (size == 0 || value <= heap[0]) {
+            return value;
+        }
+        int top = heap[0];
+        siftDown(0, value);
+        return top;
+    }
+
+    /** Pop the smallest element, then push value; the heap must not be empty. */
+    public int replaceTop(int value) {
+        int top = peek();
+        siftDown(0, value);
+        return top;
+    }
+
+    /** Replace the contents with values and restore the heap order bottom-up, in O(n). */
+    public void heapify(int[] values) {
+        if (heap.length < values.length) {
+            heap = new int[values.length];
+        }
+        System.arraycopy(values, 0, heap, 0, values.length);
+        size = values.length;
+        for (int i = (size - 2) / arity; i >= 0 && size > 1; i--) {
+            siftDown(i, heap[i]);
+        }
+    }
+
+    // Place value at the hole i, moving larger ancestors down
+    private void siftUp(int i, int value) {
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    // Place value at the hole i, moving smaller descendants up
+    private void siftDown(int i, int value) {
+        int[] heap = this.heap;
+        int n = size;
+        int firstChild;
+        while ((firstChild = arity * i + 1) < n) {
+            int end = Math.min(firstChild + arity, n);
+            int smallest = firstChild;
+            int smallestValue = heap[firstChild];
+            for (int c = firstChild + 1; c < end; c++) {
+                if (heap[c] < smallestValue) {
+                    smallest = c;
+                    smallestValue = heap[c];
+                }
+            }
+            if (smallestValue >= value) {
+                break;
+            }
+            heap[i] = smallestValue;
+            i = smallest;
+        }
+        heap[i] = value;
+    }
+
+    // Benchmark: IntDaryHeap (d = 2, 4, 8) vs MinHeap, MaxHeap and PriorityQueue<Integer>
+    public static void main(String[] args) {
+        final int n = 1_000_000;
+        final int k = 1_000;
+        Random random = new Random(25);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = random.nextInt(Integer.MAX_VALUE);   // Safe to negate
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        // Correctness: every variant pops the sorted order, heapify included
+        for (int arity : new int[] {2, 3, 4, 8}) {
+            IntDaryHeap heap = new IntDaryHeap(arity, 0);
+            for (int v : values) heap.push(v);
+            IntDaryHeap bulk = new IntDaryHeap(arity);
+            bulk.heapify(values);
+            for (int v : sorted) {
+                if (heap.pop() != v || bulk.pop() != v) throw new AssertionError("arity " + arity);
+            }
+            PriorityQueue<Integer> reference = new PriorityQueue<>();
+            for (int i = 0; i < 1_000; i++) {
+                heap.push(values[i]);
+                reference.add(values[i]);
+            }
+            for (int i = 1_000; i < 100_000; i++) {             // Fused operations match poll/add
+                int actual = i % 2 == 0 ? heap.replaceTop(values[i]) : heap.pushPop(values[i]);
+                if (i % 2 != 0) reference.add(values[i]);             // pushPop: push, then pop
+                int expected = reference.poll();
+                if (i % 2 == 0) reference.add(values[i]);             // replaceTop: pop, then push
+                if (actual != expected) throw new AssertionError("fused op, arity " + arity);
+            }
+        }
+        long expectedChecksum = 0;
+        for (int v : sorted) expectedChecksum = expectedChecksum * 31 + v;
+        long expectedTopK = 0;
+        for (int i = n - k; i < n; i++) expectedTopK += sorted[i];
+
+        String[] names = {"MinHeap (fixed, binary)", "MaxHeap (fixed, binary)", "PriorityQueue<Integer>",
+                "IntDaryHeap d=2", "IntDaryHeap d=4", "IntDaryHeap d=8"};
+        long[] pushPopNs = new long[names.length];
+        long[] buildNs = new long[names.length];
+        long[] topKNs = new long[names.length];
+        for (int round = 0; round < 4; round++) {                 // First round warms up the JIT
+            for (int h = 0; h < names.length; h++) {
+                long start = System.nanoTime();
+                long checksum = pushThenPopAll(h, values);
+                long mid = System.nanoTime();
+                long built = build(h, values);
+                long mid2 = System.nanoTime();
+                long topK = topK(h, values, k);
+                long end = System.nanoTime();
+                if (checksum != expectedChecksum || built != sorted[0] || topK != expectedTopK) {
+                    throw new AssertionError(names[h]);
+                }
+                if (round > 0) {
+                    pushPopNs[h] += mid - start;
+                    buildNs[h] += mid2 - mid;
+                    topKNs[h] += end - mid2;
+                }
+            }
+        }
+        System.out.printf("%-24s %16s %16s %18s%n", "", "push+pop ns/op", "build ns/elem", "top-1000 ns/elem");
+        for (int h = 0; h < names.length; h++) {
+            System.out.printf("%-24s %16.1f %16.1f %18.1f%n", names[h], pushPopNs[h] / 3.0 / (2.0 * n),
+                    buildNs[h] / 3.0 / n, topKNs[h] / 3.0 / n);
+        }
+    }
+
+    // Push every value, then pop them all; returns an order-sensitive checksum of the pops
+    private static long pushThenPopAll(int h, int[] values) {
+        long checksum = 0;
+        if (h == 0) {
+            MinHeap heap = new MinHeap(values.length);          // Capacity must be known up front
+            for (int v : values) heap.insert(v);
+            for (int i = 0; i < values.length; i++) checksum = checksum * 31 + heap.extractMin();
+        } else if (h == 1) {
+            MaxHeap heap = new MaxHeap(values.length);          // Min-heap via negated values
+            for (int v : values) heap.insert(-v);
+            for (int i = 0; i < values.length; i++) checksum = checksum * 31 - heap.extractMax();
+        } else if (h == 2) {
+            PriorityQueue<Integer> heap = new PriorityQueue<>();
+            for (int v : values) heap.add(v);
+            for (int i = 0; i < values.length; i++) checksum = checksum * 31 + heap.poll();
+        } else {
+            IntDaryHeap heap = new IntDaryHeap(arityOf(h), 0); // Grows from empty
+            for (int v : values) heap.push(v);
+            for (int i = 0; i < values.length; i++) checksum = checksum * 31 + heap.pop();
+        }
+        return checksum;
+    }
+
+    // Build a heap from all values at once and return its top (minimum; MaxHeap holds negated values)
+    private static long build(int h, int[] values) {
+        if (h == 0) {
+            MinHeap heap = new MinHeap(values.length);          // No bulk build: n inserts
+            for (int v : values) heap.insert(v);
+            return heap.getMin();
+        } else if (h == 1) {
+            MaxHeap heap = new MaxHeap(values.length);
+            for (int v : values) heap.insert(-v);
+            return -heap.getMax();
+        } else if (h == 2) {
+            List<Integer> boxed = new ArrayList<>(values.length);
+            for (int v : values) boxed.add(v);
+            return new PriorityQueue<>(boxed).peek();           // Collection constructor heapifies in O(n)
+        }
+        IntDaryHeap heap = new IntDaryHeap(arityOf(h));
+        heap.heapify(values);
+        return heap.peek();
+    }
+
+    // Sum of the k largest values, streaming through a size-k min-heap
+    private static long topK(int h, int[] values, int k) {
+        long sum = 0;
+        if (h == 0) {
+            MinHeap heap = new MinHeap(k);
+            for (int i = 0; i < k; i++) heap.insert(values[i]);
+            for (int i = k; i < values.length; i++) {
+                if (values[i] > heap.getMin()) {            // Pop then push: two sifts
+                    heap.extractMin();
+                    heap.insert(values[i]);
+                }
+            }
+            for (int i = 0; i < k; i++) sum += heap.extractMin();
+        } else if (h == 1) {
+            MaxHeap heap = new MaxHeap(k);                      // Min-heap via negated values
+            for (int i = 0; i < k; i++) heap.insert(-values[i]);
+            for (int i = k; i < values.length; i++) {
+                if (-values[i] < heap.getMax()) {
+                    heap.extractMax();
+                    heap.insert(-values[i]);
+                }
+            }
+            for (int i = 0; i < k; i++) sum -= heap.extractMax();
+        } else if (h == 2) {
+            PriorityQueue<Integer> heap = new PriorityQueue<>(k);
+            for (int i = 0; i < k; i++) heap.add(values[i]);
+            for (int i = k; i < values.length; i++) {
+                if (values[i] > heap.peek()) {
+                    heap.poll();
+                    heap.add(values[i]);
+                }
+            }
+            while (!heap.isEmpty()) sum += heap.poll();
+        } else {
+            IntDaryHeap heap = new IntDaryHeap(arityOf(h), k);
+            for (int i = 0; i < k; i++) heap.push(values[i]);
+            for (int i = k; i < values.length; i++) heap.pushPop(values[i]);   // Fused: one sift at most
+            while (!heap.isEmpty()) sum += heap.pop();
+        }
+        return sum;
+    }
+
+    private static int arityOf(int h) {
+        return h == 3 ? 2 : h == 4 ? 4 : 8;
+    }
+}
@@ -0,0 +1,239 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConcurrentLRUCache {
+    // Problem: Concurrent LRU Cache (Lock Striping)
+    // Extend the LRU Cache so it can be shared by many threads at once. The plain LRUCache keeps a
+    // single HashMap and a single doubly linked list, so every get/put has to hold one global lock
+    // and throughput stops growing after a handful of cores. Design a cache with the same get/put
+    // contract (get returns -1 on a miss, put inserts or updates) that lets threads working on
+    // different keys proceed in parallel.
+    // DSA Pattern: Lock Striping (Segmented Hash Map) + Doubly Linked List + Hash Map
+    // The key space is split across N independent segments. Each segment is a complete LRU cache
+    // (its own hash map, dummy head/tail nodes and lock) that owns 1/N of the total capacity. A key
+    // always hashes to the same segment, so only the threads that touch the same segment compete
+    // for the same lock.
+    // Approach:
+    // 1. Round the requested segment count up to a power of two so the segment index is a bit mask.
+    // 2. Split the capacity evenly across segments (ceil(capacity / segments), at least 1 each).
+    // 3. For get(key) / put(key, value):
+    //    - Spread the key's hash (h ^ h >>> 16) so nearby integers land in different segments.
+    //    - Pick segments[hash & mask], take its lock and run the ordinary LRU logic inside it:
+    //      remove(node) + insertAtHead(node) on a hit, evict tail.prev when the segment is full.
+    // 4. size() sums the segment sizes; it is only a moment-in-time estimate under concurrency.
+    // 5. main() benchmarks throughput from 1 to 32 threads against a single LRUCache guarded by
+    //    one synchronized block (compile together with 14_LRUCache.java).
+    // Key Points to Remember:
+    // - Eviction is per segment, so the cache is "approximately" LRU: the evicted key is the least
+    //   recently used key of its segment, not necessarily of the whole cache.
+    // - A power-of-two segment count replaces the modulo with a cheap mask.
+    // - Hash spreading matters: without it, sequential integer keys would fill segments in runs.
+    // - ReentrantLock is used instead of synchronized so each segment has an explicit lock that is
+    //   easy to reason about and to swap for tryLock/fair variants later.
+    // - More segments = less contention but coarser LRU accuracy and less capacity per segment.
+    // - Edge cases: capacity smaller than segment count (each segment still holds at least 1),
+    //   repeated puts on one key (update in place, no eviction), keys not present (-1).
+    // Time Complexity: O(1)
+    // - get/put: O(1) hash + O(1) hash map and list operations inside one segment.
+    // - size: O(N) over segments.
+    // Space Complexity: O(capacity + N)
+    // - Each segment stores at most its share of the capacity plus two dummy nodes and one lock.
+
+    // Node class for the doubly linked list inside a segment
+    private static class Node {
+        int key;    // Key for hash map mapping
+        int value;  // Value stored in the node
+        Node prev;  // Pointer to previous node
+        Node next;  // Pointer to next node
+        Node(int key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    // A segment is a self-contained LRU cache guarded by its own lock
+    private static final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;                 // Maximum number of items in this segment
+        private final HashMap<Integer, Node> map;   // Maps keys to nodes for O(1) lookup
+        private final Node head;                    // Dummy head node (most recently used side)
+        private final Node tail;                    // Dummy tail node (least recently used side)
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.map = new HashMap<>();
+            this.head = new Node(0, 0);
+            this.tail = new Node(0, 0);
+            head.next = tail;
+            tail.prev = head;
+        }
+
+        int get(int key) {
+            lock.lock();
+            try {
+                Node node = map.get(key);
+                if (node == null) {
+                    return -1;
+                }
+                // Move the accessed node to the front (most recently used)
+                remove(node);
+                insertAtHead(node);
+                return node.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(int key, int value) {
+            lock.lock();
+            try {
+                Node node = map.get(key);
+                if (node != null) {
+                    // Key exists: update value and move to front
+                    node.value = value;
+                    remove(node);
+                    insertAtHead(node);
+                    return;
+                }
+                // Segment full: drop its least recently used node
+                if (map.size() == capacity) {
+                    map.remove(tail.prev.key);
+                    remove(tail.prev);
+                }
+                Node newNode = new Node(key, value);
+                map.put(key, newNode);
+                insertAtHead(newNode);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return map.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Helper method to remove a node from the doubly linked list
+        private void remove(Node node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+        }
+
+        // Helper method to insert a node right after the head
+        private void insertAtHead(Node node) {
+            node.next = head.next;
+            node.next.prev = node;
+            head.next = node;
+            node.prev = head;
+        }
+    }
+
+    private final Segment[] segments; // Independently locked LRU segments
+    private final int mask;           // segments.length - 1, used instead of modulo
+
+    // Initialize with a default of 16 segments
+    public ConcurrentLRUCache(int capacity) {
+        this(capacity, 16);
+    }
+
+    // Initialize with the given total capacity spread across (at least) segmentCount segments
+    public ConcurrentLRUCache(int capacity, int segmentCount) {
+        if (capacity <= 0 || segmentCount <= 0) {
+            throw new IllegalArgumentException("capacity and segmentCount must be positive");
+        }
+        int n = 1;
+        while (n < segmentCount) {
+            n <<= 1;                    // Round up to a power of two
+        }
+        int perSegment = Math.max(1, (capacity + n - 1) / n);
+        this.segments = new Segment[n];
+        for (int i = 0; i < n; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        this.mask = n - 1;
+    }
+
+    // Get the value associated with the key, or -1 if not found
+    public int get(int key) {
+        return segmentFor(key).get(key);
+    }
+
+    // Insert or update a key-value pair in the cache
+    public void put(int key, int value) {
+        segmentFor(key).put(key, value);
+    }
+
+    // Approximate number of entries across all segments
+    public int size() {
+        int total = 0;
+        for (Segment segment : segments) {
+            total += segment.size();
+        }
+        return total;
+    }
+
+    // Pick the segment that owns this key
+    private Segment segmentFor(int key) {
+        int h = Integer.hashCode(key);
+        h ^= (h >>> 16);                // Spread high bits into the low bits used by the mask
+        return segments[h & mask];
+    }
+
+    // Benchmark: striped cache vs. one LRUCache behind a global lock, 1..32 threads
+    public static void main(String[] args) throws Exception {
+        final int capacity = 10_000;
+        final int keySpace = 20_000;
+        final int opsPerThread = 500_000;
+
+        System.out.println("threads  synchronized(ops/s)  striped(ops/s)");
+        for (int threads = 1; threads <= 32; threads <<= 1) {
+            LRUCache baseline = new LRUCache(capacity);
+            double syncOps = run(threads, opsPerThread, keySpace, (write, key) -> {
+                synchronized (baseline) {
+                    if (write) baseline.put(key, key);
+                    else baseline.get(key);
+                }
+            });
+            ConcurrentLRUCache striped = new ConcurrentLRUCache(capacity, 64);
+            double stripedOps = run(threads, opsPerThread, keySpace, (write, key) -> {
+                if (write) striped.put(key, key);
+                else striped.get(key);
+            });
+            System.out.printf("%7d  %19.0f  %14.0f%n", threads, syncOps, stripedOps);
+        }
+    }
+
+    private interface CacheOp {
+        void apply(boolean write, int key);
+    }
+
+    // Run the same 80% get / 20% put mix on every thread and return total ops per second
+    private static double run(int threads, int opsPerThread, int keySpace, CacheOp op) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                start.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    op.apply(random.nextInt(5) == 0, random.nextInt(keySpace));
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        pool.shutdown();
+        return (double) threads * opsPerThread / (elapsed / 1e9);
+    }
+}
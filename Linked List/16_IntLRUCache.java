@@ -0,0 +1,221 @@
+public class IntLRUCache {
+    // Problem: Allocation-Free LRU Cache (Primitive Arrays)
+    // Same contract as LRU Cache (get returns the value or -1, put inserts or updates and evicts the
+    // least recently used key when full), but every entry of the classic solution costs a Node object,
+    // a boxed Integer key and a HashMap.Entry: roughly 80+ bytes to store 8 bytes of payload, plus a
+    // constant stream of garbage. Design a version where get/put allocate nothing after construction.
+    // DSA Pattern: Array-Backed Doubly Linked List + Open-Addressing Hash Table
+    // The doubly linked list is stored as four parallel int arrays (keys, values, prev, next) indexed
+    // by "slot". Pointers become slot indices. The key -> slot lookup is an open-addressing hash table
+    // (linear probing) stored in one more int array. Two extra slots act as the dummy head and tail.
+    // Approach:
+    // 1. Preallocate keys/values/prev/next with capacity + 2 slots:
+    //    - slots [0, capacity) hold entries, HEAD = capacity and TAIL = capacity + 1 are sentinels.
+    //    - HEAD.next = TAIL and TAIL.prev = HEAD initially, exactly like the Node version.
+    // 2. The index table has a power-of-two length >= 2 * capacity (load factor <= 0.5). Each cell
+    //    holds slot + 1, so 0 means "empty".
+    // 3. get(key): probe the table; on a hit unlink the slot and insertAtHead(slot), return values[slot].
+    // 4. put(key, value):
+    //    - Hit: overwrite the value and move the slot to the head.
+    //    - Miss and not full: take the next never-used slot (size++).
+    //    - Miss and full: reuse the slot before TAIL (the LRU entry) after deleting its key from the
+    //      index, so the victim's slot is recycled for the new key with no allocation.
+    // 5. Deletion from the index uses backward-shift deletion (no tombstones), so probe sequences
+    //    never degrade no matter how many evictions happen.
+    // 6. main() reports bytes per entry and ops/sec against LRUCache (compile with 14_LRUCache.java).
+    // Key Points to Remember:
+    // - Everything is an int: no boxing, no per-entry objects, no GC work on the hot path.
+    // - Slot recycling on eviction means the arrays never grow and never need compaction.
+    // - Backward-shift deletion: after clearing a cell, walk forward and move back any entry whose
+    //   home position lies cyclically outside (hole, current]; stop at the first empty cell.
+    // - The hash mixes the key (multiply by a large odd constant) so sequential keys do not cluster.
+    // - Keys and values are full 32-bit ints; -1 from get() is ambiguous only if -1 is stored,
+    //   which matches the original LeetCode contract.
+    // - Edge cases: capacity 1, repeated put on the same key, get on empty cache.
+    // Time Complexity: O(1) expected
+    // - get/put: O(1) expected probes at load factor <= 0.5, plus O(1) link updates.
+    // Space Complexity: O(capacity)
+    // - 4 ints per slot + at least 2 ints of index per entry = ~24-32 bytes per entry, all allocated once.
+
+    private final int capacity;   // Maximum number of entries
+    private final int head;       // Sentinel slot for the most recently used end
+    private final int tail;       // Sentinel slot for the least recently used end
+    private final int[] keys;     // keys[slot]
+    private final int[] values;   // values[slot]
+    private final int[] prev;     // prev[slot] = slot of the previous node
+    private final int[] next;     // next[slot] = slot of the next node
+    private final int[] table;    // Open-addressing index: cell holds slot + 1, 0 = empty
+    private final int mask;       // table.length - 1
+    private final int shift;      // 32 - log2(table.length), keeps the top hash bits
+    private int size;             // Number of slots in use
+
+    // Initialize the cache with given capacity; this is the only allocation the cache ever makes
+    public IntLRUCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.head = capacity;
+        this.tail = capacity + 1;
+        this.keys = new int[capacity + 2];
+        this.values = new int[capacity + 2];
+        this.prev = new int[capacity + 2];
+        this.next = new int[capacity + 2];
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+        this.table = new int[tableSize];
+        this.mask = tableSize - 1;
+        this.shift = 32 - Integer.numberOfTrailingZeros(tableSize);
+        next[head] = tail;            // Connect head to tail
+        prev[tail] = head;            // Connect tail to head
+    }
+
+    // Get the value associated with the key, or -1 if not found
+    public int get(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return -1;
+        }
+        // Move the accessed slot to the front (most recently used)
+        remove(slot);
+        insertAtHead(slot);
+        return values[slot];
+    }
+
+    // Insert or update a key-value pair in the cache
+    public void put(int key, int value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            // Key exists: update value and move to front
+            values[slot] = value;
+            remove(slot);
+            insertAtHead(slot);
+            return;
+        }
+        if (size < capacity) {
+            slot = size++;            // Take a fresh slot
+        } else {
+            slot = prev[tail];        // Recycle the least recently used slot
+            unindex(keys[slot]);
+            remove(slot);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        index(key, slot);
+        insertAtHead(slot);
+    }
+
+    // Number of entries currently cached
+    public int size() {
+        return size;
+    }
+
+    // Spread the key bits over the table (Fibonacci hashing)
+    private int home(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    // Return the slot holding the key, or -1 if absent
+    private int find(int key) {
+        for (int i = home(key); ; i = (i + 1) & mask) {
+            int cell = table[i];
+            if (cell == 0) {
+                return -1;
+            }
+            if (keys[cell - 1] == key) {
+                return cell - 1;
+            }
+        }
+    }
+
+    // Record key -> slot in the index (the key is known to be absent)
+    private void index(int key, int slot) {
+        int i = home(key);
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+    }
+
+    // Delete the key from the index using backward-shift deletion
+    private void unindex(int key) {
+        int hole = home(key);
+        while (keys[table[hole] - 1] != key) {
+            hole = (hole + 1) & mask;
+        }
+        for (int i = (hole + 1) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int h = home(keys[table[i] - 1]);
+            // Move the entry back if its home is not in the cyclic range (hole, i]
+            boolean stays = hole <= i ? (hole < h && h <= i) : (hole < h || h <= i);
+            if (!stays) {
+                table[hole] = table[i];
+                hole = i;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    // Helper method to unlink a slot from the list
+    private void remove(int slot) {
+        next[prev[slot]] = next[slot];
+        prev[next[slot]] = prev[slot];
+    }
+
+    // Helper method to link a slot right after the head
+    private void insertAtHead(int slot) {
+        next[slot] = next[head];
+        prev[next[slot]] = slot;
+        next[head] = slot;
+        prev[slot] = head;
+    }
+
+    // Benchmark: memory per entry and ops/sec against the Node-based LRUCache
+    public static void main(String[] args) {
+        final int capacity = 1_000_000;
+        final int ops = 20_000_000;
+
+        long before = usedMemory();
+        IntLRUCache primitive = new IntLRUCache(capacity);
+        for (int i = 0; i < capacity; i++) primitive.put(i, i);
+        long primitiveBytes = usedMemory() - before;
+
+        before = usedMemory();
+        LRUCache boxed = new LRUCache(capacity);
+        for (int i = 0; i < capacity; i++) boxed.put(i, i);
+        long boxedBytes = usedMemory() - before;
+
+        System.out.printf("bytes/entry  IntLRUCache=%.1f  LRUCache=%.1f%n",
+                (double) primitiveBytes / capacity, (double) boxedBytes / capacity);
+
+        // Same pseudo-random trace for both: keys over 2x capacity gives ~50% hits and steady evictions
+        long seed = 42;
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < ops; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            int key = (int) ((seed >>> 33) % (2L * capacity));
+            if ((i & 3) == 0) primitive.put(key, i);
+            else checksum += primitive.get(key);
+        }
+        double primitiveOps = ops / ((System.nanoTime() - start) / 1e9);
+
+        seed = 42;
+        start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            int key = (int) ((seed >>> 33) % (2L * capacity));
+            if ((i & 3) == 0) boxed.put(key, i);
+            else checksum -= boxed.get(key);
+        }
+        double boxedOps = ops / ((System.nanoTime() - start) / 1e9);
+
+        // checksum adds IntLRUCache results and subtracts LRUCache results: 0 means identical answers
+        System.out.printf("ops/sec      IntLRUCache=%.0f  LRUCache=%.0f  (checksum %d)%n",
+                primitiveOps, boxedOps, checksum);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,289 @@
+import java.util.*;
+
+public class TinyLFUCache {
+    // Problem: LRU Cache with W-TinyLFU Admission
+    // LRUCache.put always evicts tail.prev, so a single pass over many one-off keys (a "scan") pushes
+    // every hot key out of the cache. Keep the LRU get/put contract (get returns the value or -1) but
+    // add an optional admission filter: a new key may only replace the LRU victim if it has been seen
+    // more often than the victim. Recency is still respected through a small window LRU in front.
+    // DSA Pattern: Doubly Linked List + Hash Map + Count-Min Sketch
+    // - Two LRU lists (window and main) share one hash map from key to node.
+    // - A count-min sketch estimates how often each key was requested, using a few rows of small
+    //   counters instead of a per-key map, and is periodically halved ("aging") so old popularity fades.
+    // Approach:
+    // 1. Split capacity: about 1% (at least 1) for the window LRU, the rest for the main LRU.
+    // 2. Every get/put records the key in the sketch: increment one counter per row, capped at 15.
+    // 3. get(key): on a hit move the node to the head of the list it lives in; otherwise -1.
+    // 4. put(key, value):
+    //    - Existing key: update the value and move it to the head of its list.
+    //    - New key: insert at the head of the window. If the window overflows, its tail becomes the
+    //      "candidate". If the main LRU still has room the candidate moves in for free; otherwise the
+    //      main LRU's tail is the "victim" and the one with the higher estimated frequency stays.
+    // 5. Aging: after sampleSize = 10 * capacity recorded events, halve every counter.
+    // 6. With admission disabled the window is the whole cache, which is exactly plain LRU.
+    // 7. main() replays Zipfian and scan-heavy traces and prints hit ratios against LRUCache
+    //    (compile together with 14_LRUCache.java).
+    // Key Points to Remember:
+    // - Count-min sketch: estimate = min over rows of counter[row][hash_row(key)]. Collisions can only
+    //   over-estimate, never under-estimate, and taking the minimum keeps the error small.
+    // - Counters saturate at 15 (4 bits would be enough); aging keeps them from all reaching the cap.
+    // - The window lets brand-new keys build up frequency before facing the admission test, so a
+    //   burst of a new hot key is not rejected immediately.
+    // - Ties go to the victim: a candidate must be strictly more frequent to get in, which is what
+    //   stops a scan of once-seen keys from flushing the main region.
+    // - Edge cases: capacity 1 (window 1, main 0 -> behaves like LRU of size 1), repeated puts.
+    // Time Complexity: O(1)
+    // - get/put: O(depth) sketch work with depth = 4, plus O(1) map and list operations.
+    // - Aging: O(sketch width) every 10 * capacity events, i.e. amortized O(1).
+    // Space Complexity: O(capacity)
+    // - Map and nodes for at most capacity entries, plus a sketch of 4 * nextPowerOfTwo(capacity) ints.
+
+    // Node class for the doubly linked lists
+    private static class Node {
+        int key;          // Key for hash map mapping
+        int value;        // Value stored in the node
+        boolean inWindow; // Which list owns the node
+        Node prev;        // Pointer to previous node
+        Node next;        // Pointer to next node
+        Node(int key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    // LRU list with dummy head/tail nodes, same mechanics as LRUCache
+    private static final class LruList {
+        final Node head = new Node(0, 0);   // Dummy head (most recently used side)
+        final Node tail = new Node(0, 0);   // Dummy tail (least recently used side)
+        final int capacity;                 // Maximum nodes in this list
+        int size;                           // Current nodes in this list
+
+        LruList(int capacity) {
+            this.capacity = capacity;
+            head.next = tail;
+            tail.prev = head;
+        }
+
+        void remove(Node node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            size--;
+        }
+
+        void insertAtHead(Node node) {
+            node.next = head.next;
+            node.next.prev = node;
+            head.next = node;
+            node.prev = head;
+            size++;
+        }
+
+        Node last() {
+            return tail.prev == head ? null : tail.prev;
+        }
+    }
+
+    // Count-min sketch with 4 rows of saturating counters and periodic halving
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final int[][] table;  // table[row][column]
+        private final int mask;       // width - 1
+        private final int sampleSize; // Events between agings
+        private int events;           // Events since the last aging
+
+        FrequencySketch(int capacity) {
+            int width = Integer.highestOneBit(Math.max(16, capacity * 2 - 1)) << 1;
+            this.table = new int[DEPTH][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * Math.max(1, capacity);
+        }
+
+        private int index(int key, int row) {
+            int h = key * SEEDS[row];
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        void increment(int key) {
+            for (int row = 0; row < DEPTH; row++) {
+                int i = index(key, row);
+                if (table[row][i] < MAX_COUNT) {
+                    table[row][i]++;
+                }
+            }
+            if (++events == sampleSize) {
+                age();
+            }
+        }
+
+        int frequency(int key) {
+            int min = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, table[row][index(key, row)]);
+            }
+            return min;
+        }
+
+        // Halve every counter so stale popularity decays
+        private void age() {
+            for (int[] row : table) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>>= 1;
+                }
+            }
+            events = 0;
+        }
+    }
+
+    private final HashMap<Integer, Node> map; // Maps keys to nodes in either list
+    private final LruList window;             // Small recency-only admission window
+    private final LruList main;               // Frequency-guarded main region
+    private final FrequencySketch sketch;     // null when admission is disabled
+
+    // Initialize with the admission filter enabled
+    public TinyLFUCache(int capacity) {
+        this(capacity, true);
+    }
+
+    // Initialize the cache; admission = false degrades to plain LRU eviction
+    public TinyLFUCache(int capacity, boolean admission) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int windowCapacity = admission ? Math.max(1, capacity / 100) : capacity;
+        this.map = new HashMap<>();
+        this.window = new LruList(windowCapacity);
+        this.main = new LruList(capacity - windowCapacity);
+        this.sketch = admission ? new FrequencySketch(capacity) : null;
+    }
+
+    // Get the value associated with the key, or -1 if not found
+    public int get(int key) {
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        Node node = map.get(key);
+        if (node == null) {
+            return -1;
+        }
+        touch(node);
+        return node.value;
+    }
+
+    // Insert or update a key-value pair in the cache
+    public void put(int key, int value) {
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        Node node = map.get(key);
+        if (node != null) {
+            node.value = value;
+            touch(node);
+            return;
+        }
+        node = new Node(key, value);
+        node.inWindow = true;
+        map.put(key, node);
+        window.insertAtHead(node);
+        if (window.size > window.capacity) {
+            evictFromWindow();
+        }
+    }
+
+    // Number of entries currently cached
+    public int size() {
+        return map.size();
+    }
+
+    // Move a node to the head of whichever list owns it
+    private void touch(Node node) {
+        LruList list = node.inWindow ? window : main;
+        list.remove(node);
+        list.insertAtHead(node);
+    }
+
+    // The window overflowed: its LRU entry either enters main or competes with main's LRU entry
+    private void evictFromWindow() {
+        Node candidate = window.last();
+        window.remove(candidate);
+        if (main.size < main.capacity) {
+            candidate.inWindow = false;
+            main.insertAtHead(candidate);
+            return;
+        }
+        Node victim = main.last();
+        if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            main.remove(victim);
+            map.remove(victim.key);
+            candidate.inWindow = false;
+            main.insertAtHead(candidate);
+        } else {
+            map.remove(candidate.key);      // Rejected: the victim is at least as popular
+        }
+    }
+
+    // Trace replay: hit ratio of W-TinyLFU vs. plain LRU on Zipfian and scan-heavy workloads
+    public static void main(String[] args) {
+        final int capacity = 1_000;
+        final int length = 1_000_000;
+        Random random = new Random(7);
+
+        int[] zipf = zipfTrace(random, 100_000, 0.99, length);
+        int[] scan = scanTrace(random, capacity, length);
+
+        System.out.println("trace     LRUCache  TinyLFU(off)  TinyLFU(on)");
+        report("zipfian", zipf, capacity);
+        report("scan", scan, capacity);
+    }
+
+    private static void report(String name, int[] trace, int capacity) {
+        LRUCache lru = new LRUCache(capacity);
+        TinyLFUCache plain = new TinyLFUCache(capacity, false);
+        TinyLFUCache tiny = new TinyLFUCache(capacity, true);
+        int lruHits = 0, plainHits = 0, tinyHits = 0;
+        for (int key : trace) {
+            // Read-through: count a hit, otherwise load the key into the cache
+            if (lru.get(key) != -1) lruHits++; else lru.put(key, key);
+            if (plain.get(key) != -1) plainHits++; else plain.put(key, key);
+            if (tiny.get(key) != -1) tinyHits++; else tiny.put(key, key);
+        }
+        System.out.printf("%-8s  %7.2f%%  %11.2f%%  %10.2f%%%n", name,
+                100.0 * lruHits / trace.length, 100.0 * plainHits / trace.length,
+                100.0 * tinyHits / trace.length);
+    }
+
+    // Zipf(s) distributed keys in [0, items) via inverse CDF + binary search
+    private static int[] zipfTrace(Random random, int items, double s, int length) {
+        double[] cdf = new double[items];
+        double sum = 0;
+        for (int i = 0; i < items; i++) {
+            sum += 1.0 / Math.pow(i + 1, s);
+            cdf[i] = sum;
+        }
+        int[] trace = new int[length];
+        for (int i = 0; i < length; i++) {
+            int idx = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            trace[i] = idx >= 0 ? idx : -idx - 1;
+        }
+        return trace;
+    }
+
+    // A hot set half the cache size, interrupted by long sequential scans of never-repeated keys
+    private static int[] scanTrace(Random random, int capacity, int length) {
+        int[] trace = new int[length];
+        int hot = capacity / 2;
+        int nextScanKey = 1_000_000;
+        int i = 0;
+        while (i < length) {
+            for (int j = 0; j < 5 * capacity && i < length; j++) {
+                trace[i++] = random.nextInt(hot);
+            }
+            for (int j = 0; j < 2 * capacity && i < length; j++) {
+                trace[i++] = nextScanKey++;
+            }
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,291 @@
+import java.util.*;
+import java.util.function.LongSupplier;
+
+public class ExpiringLRUCache {
+    // Problem: LRU Cache with Per-Entry TTL
+    // Extend the LRU Cache so entries also expire after a time-to-live. Two policies are supported:
+    // - expire-after-write: an entry dies a fixed time after it was last put.
+    // - expire-after-access: an entry dies a fixed time after it was last read or written.
+    // Expired keys must never be returned, and reclaiming them must not require scanning the whole
+    // linked list (O(n)). Expiration work should be amortized O(1) per get/put, or triggered
+    // explicitly with cleanUp().
+    // DSA Pattern: Doubly Linked List + Hash Map + Hierarchical Timing Wheel
+    // The LRU part is unchanged (map + list with dummy head/tail). Every node is also linked into a
+    // bucket of a hierarchical timing wheel: 4 levels of 64 buckets each, where level L buckets span
+    // 64^L ticks. Advancing the clock only visits the buckets whose time has come; entries found in a
+    // coarse bucket that are not yet due are "cascaded" down to a finer level.
+    // Approach:
+    // 1. Time is read from a LongSupplier in milliseconds (injectable for tests); 1 tick = 1 ms.
+    // 2. schedule(node): delta = expireAt - currentTick. Pick the lowest level whose span covers delta
+    //    (delta < 64, < 64^2, < 64^3, else the top level), and the bucket (expireAt >> 6*level) & 63.
+    //    Deltas beyond the top level are clamped; those entries are simply rescheduled when reached.
+    // 3. advance(now): for every level, walk the bucket indices passed since the last advance (at most
+    //    64 per level). Each bucket is detached and drained: expired nodes are removed from the map
+    //    and the LRU list, the rest are rescheduled relative to the new current tick.
+    // 4. get(key): advance the wheel, then look up. If the node is expired (even if not yet reaped)
+    //    remove it and return -1. Otherwise move it to the LRU head and, for access TTL, reschedule.
+    // 5. put(key, value): advance the wheel, then update or insert as in LRUCache. Since expired
+    //    entries were just reaped, capacity eviction of tail.prev only hits live entries.
+    // 6. cleanUp(): advance the wheel without doing any lookup.
+    // Key Points to Remember:
+    // - Each node is in two doubly linked lists at once: the LRU list (prev/next) and a wheel bucket
+    //   (wheelPrev/wheelNext). Both unlinks are O(1), so rescheduling on access is O(1).
+    // - A bucket is detached before it is drained, so entries rescheduled into the same bucket are
+    //   not visited twice in one pass.
+    // - An entry can cascade at most once per level, so total wheel work per entry is O(levels).
+    // - Reads check expireAt directly: an expired-but-unreaped entry is a miss, never a stale value.
+    // - A TTL of 0 disables that policy; if both are 0 the cache behaves like LRUCache.
+    // - Edge cases: clock jumping far ahead (bucket walk is capped at 64 per level), entries that
+    //   are already expired when scheduled (placed in the next tick's bucket).
+    // Time Complexity: O(1) amortized
+    // - get/put: O(1) map + list work, plus amortized O(1) wheel work (each entry is touched at most
+    //   once per level, and each advance visits at most 4 * 64 buckets).
+    // - cleanUp: O(expired entries + buckets visited).
+    // Space Complexity: O(capacity)
+    // - Map and nodes for at most capacity entries, plus 4 * 64 bucket sentinels.
+
+    private static final int BITS = 6;                 // log2(buckets per level)
+    private static final int BUCKETS = 1 << BITS;      // 64 buckets per level
+    private static final int LEVELS = 4;               // 64^4 ms (~4.6 hours) before deadlines are clamped
+
+    // Node class shared by the LRU list and the timing wheel buckets
+    private static class Node {
+        int key;          // Key for hash map mapping
+        int value;        // Value stored in the node
+        long writeTime;   // Last time the value was put
+        long expireAt;    // Absolute tick at which the entry expires
+        Node prev;        // LRU list: previous node
+        Node next;        // LRU list: next node
+        Node wheelPrev;   // Timing wheel bucket: previous node
+        Node wheelNext;   // Timing wheel bucket: next node
+        Node(int key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final int capacity;                 // Maximum number of items in the cache
+    private final long writeTtl;                // Expire-after-write in ms, 0 = disabled
+    private final long accessTtl;               // Expire-after-access in ms, 0 = disabled
+    private final LongSupplier clock;           // Current time in ms
+    private final HashMap<Integer, Node> map;   // Maps keys to nodes for O(1) lookup
+    private final Node head;                    // Dummy head node for the LRU list
+    private final Node tail;                    // Dummy tail node for the LRU list
+    private final Node[][] wheel;               // wheel[level][bucket] = bucket sentinel
+    private long currentTick;                   // Time of the last advance
+
+    // Initialize with the system clock
+    public ExpiringLRUCache(int capacity, long writeTtlMillis, long accessTtlMillis) {
+        this(capacity, writeTtlMillis, accessTtlMillis, System::currentTimeMillis);
+    }
+
+    // Initialize with an explicit clock (milliseconds)
+    public ExpiringLRUCache(int capacity, long writeTtlMillis, long accessTtlMillis, LongSupplier clock) {
+        if (capacity <= 0 || writeTtlMillis < 0 || accessTtlMillis < 0) {
+            throw new IllegalArgumentException("capacity must be positive and TTLs non-negative");
+        }
+        this.capacity = capacity;
+        this.writeTtl = writeTtlMillis;
+        this.accessTtl = accessTtlMillis;
+        this.clock = clock;
+        this.map = new HashMap<>();
+        this.head = new Node(0, 0);
+        this.tail = new Node(0, 0);
+        head.next = tail;
+        tail.prev = head;
+        this.wheel = new Node[LEVELS][BUCKETS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int i = 0; i < BUCKETS; i++) {
+                Node sentinel = new Node(0, 0);
+                sentinel.wheelNext = sentinel;      // Circular bucket list
+                sentinel.wheelPrev = sentinel;
+                wheel[level][i] = sentinel;
+            }
+        }
+        this.currentTick = clock.getAsLong();
+    }
+
+    // Get the value associated with the key, or -1 if not found or expired
+    public int get(int key) {
+        long now = clock.getAsLong();
+        advance(now);
+        Node node = map.get(key);
+        if (node == null) {
+            return -1;
+        }
+        if (node.expireAt <= now) {
+            evict(node);                    // Expired but not yet reaped: never return it
+            return -1;
+        }
+        remove(node);
+        insertAtHead(node);
+        if (accessTtl > 0) {
+            unschedule(node);
+            node.expireAt = expiration(node, now);
+            schedule(node);
+        }
+        return node.value;
+    }
+
+    // Insert or update a key-value pair in the cache
+    public void put(int key, int value) {
+        long now = clock.getAsLong();
+        advance(now);
+        Node node = map.get(key);
+        if (node != null) {
+            node.value = value;
+            remove(node);
+            unschedule(node);
+        } else {
+            if (map.size() == capacity) {
+                evict(tail.prev);           // Remove the least recently used node
+            }
+            node = new Node(key, value);
+            map.put(key, node);
+        }
+        insertAtHead(node);
+        node.writeTime = now;
+        node.expireAt = expiration(node, now);
+        schedule(node);
+    }
+
+    // Reap every entry whose time has come
+    public void cleanUp() {
+        advance(clock.getAsLong());
+    }
+
+    // Number of entries currently held, including expired entries not yet reaped
+    public int size() {
+        return map.size();
+    }
+
+    // Deadline from whichever TTL policies are enabled
+    private long expiration(Node node, long now) {
+        long expireAt = Long.MAX_VALUE;
+        if (writeTtl > 0) {
+            expireAt = node.writeTime + writeTtl;
+        }
+        if (accessTtl > 0) {
+            expireAt = Math.min(expireAt, now + accessTtl);
+        }
+        return expireAt;
+    }
+
+    // Move the wheel from currentTick to now, draining every bucket that came due
+    private void advance(long now) {
+        long previous = currentTick;
+        if (now <= previous) {
+            return;
+        }
+        currentTick = now;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * level;
+            long from = previous >>> shift;
+            long to = now >>> shift;
+            if (to == from) {
+                break;                      // Higher levels cannot have moved either
+            }
+            long steps = Math.min(to - from, BUCKETS);
+            for (long i = 1; i <= steps; i++) {
+                drain(wheel[level][(int) ((from + i) & (BUCKETS - 1))], now);
+            }
+        }
+    }
+
+    // Detach a bucket, then expire or cascade each node in it
+    private void drain(Node sentinel, long now) {
+        Node node = sentinel.wheelNext;
+        sentinel.wheelNext = sentinel;
+        sentinel.wheelPrev = sentinel;
+        while (node != sentinel) {
+            Node next = node.wheelNext;
+            node.wheelPrev = null;
+            node.wheelNext = null;
+            if (node.expireAt <= now) {
+                map.remove(node.key);
+                remove(node);
+            } else {
+                schedule(node);             // Not due yet: cascade to a finer bucket
+            }
+            node = next;
+        }
+    }
+
+    // Place a node in the bucket matching its deadline
+    private void schedule(Node node) {
+        if (node.expireAt == Long.MAX_VALUE) {
+            return;                         // No TTL policy: never scheduled
+        }
+        long target = Math.max(node.expireAt, currentTick + 1);
+        long delta = target - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        long maxDelta = (1L << (BITS * LEVELS)) - 1;
+        if (delta > maxDelta) {
+            target = currentTick + maxDelta; // Beyond the wheel: park in the farthest bucket
+        }
+        Node sentinel = wheel[level][(int) ((target >>> (BITS * level)) & (BUCKETS - 1))];
+        node.wheelPrev = sentinel.wheelPrev;
+        node.wheelNext = sentinel;
+        sentinel.wheelPrev.wheelNext = node;
+        sentinel.wheelPrev = node;
+    }
+
+    // Unlink a node from its wheel bucket, if it is in one
+    private void unschedule(Node node) {
+        if (node.wheelNext != null) {
+            node.wheelPrev.wheelNext = node.wheelNext;
+            node.wheelNext.wheelPrev = node.wheelPrev;
+            node.wheelPrev = null;
+            node.wheelNext = null;
+        }
+    }
+
+    // Remove a node from the map, the LRU list and the wheel
+    private void evict(Node node) {
+        map.remove(node.key);
+        remove(node);
+        unschedule(node);
+    }
+
+    // Helper method to remove a node from the LRU list
+    private void remove(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+    }
+
+    // Helper method to insert a node right after the head
+    private void insertAtHead(Node node) {
+        node.next = head.next;
+        node.next.prev = node;
+        head.next = node;
+        node.prev = head;
+    }
+
+    public static void main(String[] args) {
+        long[] now = {0};
+        ExpiringLRUCache cache = new ExpiringLRUCache(3, 1_000, 0, () -> now[0]);
+        cache.put(1, 10);
+        cache.put(2, 20);
+        now[0] = 500;
+        cache.put(3, 30);
+        System.out.println("get(1) at 500ms = " + cache.get(1));     // 10
+        now[0] = 1_000;
+        System.out.println("get(1) at 1000ms = " + cache.get(1));    // -1 (written at 0, TTL 1000)
+        System.out.println("size after reaping = " + cache.size());   // 1 (only key 3 left)
+        now[0] = 5_000;
+        cache.cleanUp();
+        System.out.println("size after cleanUp = " + cache.size());   // 0
+
+        ExpiringLRUCache idle = new ExpiringLRUCache(2, 0, 100, () -> now[0]);
+        idle.put(7, 70);
+        now[0] += 90;
+        System.out.println("get(7) after 90ms idle = " + idle.get(7));  // 70, resets access TTL
+        now[0] += 90;
+        System.out.println("get(7) after 90ms idle = " + idle.get(7));  // 70
+        now[0] += 100;
+        System.out.println("get(7) after 100ms idle = " + idle.get(7)); // -1
+    }
+}
@@ -0,0 +1,345 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class InstrumentedLRUCache {
+    // Problem: LRU Cache with Statistics
+    // The LRU Cache exposes no statistics, so its capacity cannot be tuned from real traffic. Add
+    // counters for hits, misses, puts, updates and evictions, plus latency histograms for get and
+    // put, and a snapshot() method that returns an immutable stats object. Recording must be
+    // switchable off so that a cache built without stats pays nothing on the hot path.
+    // DSA Pattern: Doubly Linked List + Hash Map + Striped Counters + Log-Bucketed Histogram
+    // - The cache itself is the classic map + doubly linked list with dummy head/tail.
+    // - Counters are LongAdders: each thread increments its own cell, and sum() adds the cells, so
+    //   counting never becomes a contention point and a monitoring thread can read at any time.
+    // - Latencies go into an HDR-style histogram: one bucket range per power of two, split into 8
+    //   linear sub-buckets, so every recorded value is kept with ~12.5% relative precision using a
+    //   fixed array of ~500 counters, whatever the range (nanoseconds up to hours).
+    // Approach:
+    // 1. The constructor takes recordStats. When false, no counters or histograms are created and
+    //    get/put skip System.nanoTime() entirely (the final flag lets the JIT drop the branch).
+    // 2. get(key): time the lookup; count a hit or a miss; record the latency.
+    // 3. put(key, value): time the operation; count a put, plus an update (key existed) or an
+    //    eviction (tail.prev was dropped); record the latency.
+    // 4. Histogram index for value v:
+    //    - v < 16: the bucket is v itself (exact).
+    //    - otherwise: e = floor(log2 v), m = the next 3 bits below the top bit,
+    //      index = 16 + (e - 4) * 8 + m.
+    // 5. snapshot() copies every counter and histogram into a CacheStats object that never
+    //    changes afterwards; percentiles are computed from the copied buckets.
+    // Key Points to Remember:
+    // - LongAdder trades a slightly more expensive read (sum over cells) for uncontended writes,
+    //   which is the right trade for metrics (written constantly, read rarely).
+    // - The snapshot is not an atomic cut across all counters; each value is individually exact.
+    // - Reported percentiles are the upper bound of the matching bucket, so they never understate.
+    // - Like LRUCache, get/put themselves are not synchronized; only the metrics are thread-safe.
+    // - Edge cases: empty histogram (percentiles are 0), hit rate with no requests (0.0).
+    // Time Complexity: O(1)
+    // - get/put: O(1) cache work + O(1) counter increments and one histogram increment.
+    // - snapshot: O(B) with B ~ 500 histogram buckets.
+    // Space Complexity: O(capacity)
+    // - Map and nodes for the cache, plus two fixed-size histograms when stats are enabled.
+
+    // Node class for the doubly linked list
+    private static class Node {
+        int key;    // Key for hash map mapping
+        int value;  // Value stored in the node
+        Node prev;  // Pointer to previous node
+        Node next;  // Pointer to next node
+        Node(int key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    // Log-bucketed histogram of non-negative long values
+    private static final class LatencyHistogram {
+        private static final int SUB_BITS = 3;                          // 8 sub-buckets per power of two
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private static final int LINEAR = 2 * SUB_BUCKETS;              // Values below 16 are exact
+        private static final int BUCKETS = LINEAR + (63 - 4) * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        void record(long value) {
+            counts.incrementAndGet(index(Math.max(0, value)));
+        }
+
+        static int index(long value) {
+            if (value < LINEAR) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);      // >= 4
+            int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return LINEAR + (exponent - 4) * SUB_BUCKETS + mantissa;
+        }
+
+        // Largest value that maps to the given bucket
+        static long upperBound(int index) {
+            if (index < LINEAR) {
+                return index;
+            }
+            int exponent = (index - LINEAR) / SUB_BUCKETS + 4;
+            int mantissa = (index - LINEAR) % SUB_BUCKETS;
+            long lower = (long) (SUB_BUCKETS + mantissa) << (exponent - SUB_BITS);
+            return lower + (1L << (exponent - SUB_BITS)) - 1;
+        }
+
+        LatencySnapshot snapshot() {
+            long[] copy = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = counts.get(i);
+            }
+            return new LatencySnapshot(copy);
+        }
+    }
+
+    // Immutable copy of a latency histogram
+    public static final class LatencySnapshot {
+        private final long[] counts;    // Bucket counts, never modified after construction
+        private final long total;       // Number of recorded values
+
+        private LatencySnapshot(long[] counts) {
+            this.counts = counts;
+            long sum = 0;
+            for (long count : counts) {
+                sum += count;
+            }
+            this.total = sum;
+        }
+
+        public long count() {
+            return total;
+        }
+
+        // Value (in ns) at or below which the given percentage of samples fall, e.g. 99.0
+        public long valueAtPercentile(double percentile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return LatencyHistogram.upperBound(i);
+                }
+            }
+            return LatencyHistogram.upperBound(counts.length - 1);
+        }
+
+        public long max() {
+            return valueAtPercentile(100.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d p50=%dns p90=%dns p99=%dns p99.9=%dns max=%dns", total,
+                    valueAtPercentile(50), valueAtPercentile(90), valueAtPercentile(99),
+                    valueAtPercentile(99.9), max());
+        }
+    }
+
+    // Immutable point-in-time statistics returned by snapshot()
+    public static final class CacheStats {
+        private final long hits;
+        private final long misses;
+        private final long puts;
+        private final long updates;
+        private final long evictions;
+        private final LatencySnapshot getLatency;
+        private final LatencySnapshot putLatency;
+
+        private CacheStats(long hits, long misses, long puts, long updates, long evictions,
+                           LatencySnapshot getLatency, LatencySnapshot putLatency) {
+            this.hits = hits;
+            this.misses = misses;
+            this.puts = puts;
+            this.updates = updates;
+            this.evictions = evictions;
+            this.getLatency = getLatency;
+            this.putLatency = putLatency;
+        }
+
+        public long hitCount() { return hits; }
+        public long missCount() { return misses; }
+        public long putCount() { return puts; }
+        public long updateCount() { return updates; }
+        public long evictionCount() { return evictions; }
+        public LatencySnapshot getLatency() { return getLatency; }
+        public LatencySnapshot putLatency() { return putLatency; }
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d hitRate=%.3f puts=%d updates=%d evictions=%d%n"
+                    + "  get: %s%n  put: %s", hits, misses, hitRate(), puts, updates, evictions,
+                    getLatency, putLatency);
+        }
+    }
+
+    private static final int INSERTED = 0;    // doPut outcome: new key, no eviction needed
+    private static final int UPDATED = 1;     // doPut outcome: existing key overwritten
+    private static final int EVICTED = 2;     // doPut outcome: new key, least recently used key dropped
+
+    private final int capacity;               // Maximum number of items in the cache
+    private final HashMap<Integer, Node> map; // Maps keys to nodes for O(1) lookup
+    private final Node head;                  // Dummy head node for the doubly linked list
+    private final Node tail;                  // Dummy tail node for the doubly linked list
+
+    private final boolean recordStats;        // When false, none of the fields below are used
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder puts;
+    private final LongAdder updates;
+    private final LongAdder evictions;
+    private final LatencyHistogram getLatency;
+    private final LatencyHistogram putLatency;
+
+    // Initialize the cache with statistics enabled
+    public InstrumentedLRUCache(int capacity) {
+        this(capacity, true);
+    }
+
+    // Initialize the cache; recordStats = false makes get/put identical in cost to LRUCache
+    public InstrumentedLRUCache(int capacity, boolean recordStats) {
+        this.capacity = capacity;
+        this.map = new HashMap<>();
+        this.head = new Node(0, 0);
+        this.tail = new Node(0, 0);
+        head.next = tail;
+        tail.prev = head;
+        this.recordStats = recordStats;
+        this.hits = recordStats ? new LongAdder() : null;
+        this.misses = recordStats ? new LongAdder() : null;
+        this.puts = recordStats ? new LongAdder() : null;
+        this.updates = recordStats ? new LongAdder() : null;
+        this.evictions = recordStats ? new LongAdder() : null;
+        this.getLatency = recordStats ? new LatencyHistogram() : null;
+        this.putLatency = recordStats ? new LatencyHistogram() : null;
+    }
+
+    // Get the value associated with the key, or -1 if not found
+    public int get(int key) {
+        if (!recordStats) {
+            Node node = doGet(key);
+            return node == null ? -1 : node.value;
+        }
+        long start = System.nanoTime();
+        Node node = doGet(key);
+        getLatency.record(System.nanoTime() - start);
+        (node == null ? misses : hits).increment();     // A stored -1 is still a hit
+        return node == null ? -1 : node.value;
+    }
+
+    // Insert or update a key-value pair in the cache
+    public void put(int key, int value) {
+        if (!recordStats) {
+            doPut(key, value);
+            return;
+        }
+        long start = System.nanoTime();
+        int outcome = doPut(key, value);
+        putLatency.record(System.nanoTime() - start);
+        puts.increment();
+        if (outcome == UPDATED) {
+            updates.increment();
+        } else if (outcome == EVICTED) {
+            evictions.increment();
+        }
+    }
+
+    // Immutable copy of the statistics recorded so far
+    public CacheStats snapshot() {
+        if (!recordStats) {
+            throw new IllegalStateException("statistics recording is disabled");
+        }
+        return new CacheStats(hits.sum(), misses.sum(), puts.sum(), updates.sum(), evictions.sum(),
+                getLatency.snapshot(), putLatency.snapshot());
+    }
+
+    public boolean isRecordingStats() {
+        return recordStats;
+    }
+
+    // Node for key moved to the front, or null on a miss
+    private Node doGet(int key) {
+        Node node = map.get(key);
+        if (node != null) {
+            remove(node);
+            insertAtHead(node);
+        }
+        return node;
+    }
+
+    private int doPut(int key, int value) {
+        Node node = map.get(key);
+        if (node != null) {
+            node.value = value;
+            remove(node);
+            insertAtHead(node);
+            return UPDATED;
+        }
+        int outcome = INSERTED;
+        if (map.size() == capacity) {
+            map.remove(tail.prev.key);
+            remove(tail.prev);
+            outcome = EVICTED;
+        }
+        Node newNode = new Node(key, value);
+        map.put(key, newNode);
+        insertAtHead(newNode);
+        return outcome;
+    }
+
+    // Helper method to remove a node from the doubly linked list
+    private void remove(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+    }
+
+    // Helper method to insert a node right after the head
+    private void insertAtHead(Node node) {
+        node.next = head.next;
+        node.next.prev = node;
+        head.next = node;
+        node.prev = head;
+    }
+
+    public static void main(String[] args) {
+        final int capacity = 10_000;
+        final int ops = 5_000_000;
+
+        InstrumentedLRUCache check = new InstrumentedLRUCache(2);
+        check.put(1, -1);                                   // -1 is a legal value, not a miss
+        check.get(1);
+        check.get(2);
+        CacheStats counted = check.snapshot();
+        if (counted.hitCount() != 1 || counted.missCount() != 1) {
+            throw new AssertionError("stored -1 miscounted: " + counted);
+        }
+
+        InstrumentedLRUCache cache = new InstrumentedLRUCache(capacity);
+        double enabled = run(cache, capacity, ops);
+        System.out.println(cache.snapshot());
+
+        double disabled = run(new InstrumentedLRUCache(capacity, false), capacity, ops);
+        System.out.printf("ops/sec  stats on=%.0f  stats off=%.0f%n", enabled, disabled);
+    }
+
+    // 3 gets per put over a key space twice the capacity
+    private static double run(InstrumentedLRUCache cache, int capacity, int ops) {
+        Random random = new Random(1);
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            int key = random.nextInt(2 * capacity);
+            if ((i & 3) == 0) cache.put(key, i);
+            else cache.get(key);
+        }
+        return ops / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,378 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+
+public class LoadingLRUCache {
+    // Problem: Single-Flight Loading LRU Cache
+    // When a hot key misses in the LRU Cache, every thread that asked for it recomputes the same value
+    // at the same moment ("cache stampede"). Add:
+    // - getOrLoad(key, loader): returns a CompletableFuture of the value. Concurrent misses on the same
+    //   key share a single in-flight load, so the loader runs once no matter how many callers wait.
+    // - getAllOrLoad(keys, batchLoader): resolves many keys; all keys that are neither cached nor
+    //   already loading are fetched with ONE batchLoader call.
+    // DSA Pattern: Doubly Linked List + Hash Map + Concurrent In-Flight Map (Single Flight)
+    // - The LRU part is the classic map + doubly linked list, guarded by one lock.
+    // - A ConcurrentHashMap<key, CompletableFuture> records loads in progress. putIfAbsent is the
+    //   atomic "claim": the one caller that wins starts the load, every other caller gets the same
+    //   future back.
+    // Approach:
+    // 1. getOrLoad(key, loader):
+    //    - Cache hit: return an already-completed future.
+    //    - Otherwise create a future and putIfAbsent it into inFlight. If another future was there,
+    //      return that one (someone else is loading).
+    //    - We won the claim: check the cache once more (a load may have finished between the miss
+    //      and the claim), otherwise run the loader on the executor.
+    //    - When the loader finishes: put the value into the LRU, THEN remove the in-flight entry,
+    //      THEN complete the future. Doing it in this order means a caller that finds no in-flight
+    //      entry is guaranteed to find the value in the cache.
+    //    - On failure: remove the in-flight entry and complete exceptionally; nothing is cached, so
+    //      the next caller retries. The same happens if the executor rejects the load: a claimed
+    //      future must always be completed, or every later caller for the key would wait forever.
+    // 2. getAllOrLoad(keys, batchLoader):
+    //    - Split keys into cached, already in flight (reuse their futures) and claimed by us.
+    //    - Call batchLoader once with all claimed keys and complete each claimed future from the
+    //      returned map. A key the batch loader does not return completes its future exceptionally
+    //      with NoSuchElementException (getOrLoad callers may share that future and expect a value),
+    //      and getAllOrLoad leaves such keys out of its result.
+    //    - Combine all futures with allOf into one Map<key, value>.
+    // 3. main() runs 64 threads that all miss on the same key at once and checks that the loader ran
+    //    exactly once, then checks that a bulk load coalesces misses into a single batch call.
+    // Key Points to Remember:
+    // - The loader never runs while the LRU lock is held, so slow loads do not block hits on other keys.
+    // - inFlight.remove(key, future) only removes our own entry, never a newer load for the same key.
+    // - Failed loads are not cached (no negative caching), and waiters see the same exception.
+    // - A stored value can be any int, including -1, because lookups use a Node (or null), not -1.
+    // Time Complexity:
+    // - getOrLoad: O(1) on a hit; O(1) + one loader call per key on a miss, shared by all waiters.
+    // - getAllOrLoad: O(k) for k keys + at most one batchLoader call.
+    // Space Complexity: O(capacity + p)
+    // - capacity cached entries plus p in-flight futures.
+
+    // Node class for the doubly linked list
+    private static class Node {
+        int key;    // Key for hash map mapping
+        int value;  // Value stored in the node
+        Node prev;  // Pointer to previous node
+        Node next;  // Pointer to next node
+        Node(int key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final int capacity;               // Maximum number of items in the cache
+    private final HashMap<Integer, Node> map; // Maps keys to nodes for O(1) lookup
+    private final Node head;                  // Dummy head node for the doubly linked list
+    private final Node tail;                  // Dummy tail node for the doubly linked list
+    private final Executor executor;          // Where loaders run
+    private final ConcurrentHashMap<Integer, CompletableFuture<Integer>> inFlight;
+
+    // Initialize with loads running on the common ForkJoinPool
+    public LoadingLRUCache(int capacity) {
+        this(capacity, ForkJoinPool.commonPool());
+    }
+
+    // Initialize with an explicit executor for loaders
+    public LoadingLRUCache(int capacity, Executor executor) {
+        this.capacity = capacity;
+        this.map = new HashMap<>();
+        this.head = new Node(0, 0);
+        this.tail = new Node(0, 0);
+        head.next = tail;
+        tail.prev = head;
+        this.executor = executor;
+        this.inFlight = new ConcurrentHashMap<>();
+    }
+
+    // Get the value associated with the key, or -1 if not found
+    public int get(int key) {
+        Node node = lookup(key);
+        return node == null ? -1 : node.value;
+    }
+
+    // Insert or update a key-value pair in the cache
+    public synchronized void put(int key, int value) {
+        Node node = map.get(key);
+        if (node != null) {
+            node.value = value;
+            remove(node);
+            insertAtHead(node);
+            return;
+        }
+        if (map.size() == capacity) {
+            map.remove(tail.prev.key);
+            remove(tail.prev);
+        }
+        Node newNode = new Node(key, value);
+        map.put(key, newNode);
+        insertAtHead(newNode);
+    }
+
+    // Return the cached value, or load it once no matter how many callers miss concurrently
+    public CompletableFuture<Integer> getOrLoad(int key, IntUnaryOperator loader) {
+        Node node = lookup(key);
+        if (node != null) {
+            return CompletableFuture.completedFuture(node.value);
+        }
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        CompletableFuture<Integer> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;                        // Someone else is already loading this key
+        }
+        node = lookup(key);
+        if (node != null) {
+            inFlight.remove(key, future);           // A load finished between the miss and the claim
+            future.complete(node.value);
+            return future;
+        }
+        Map<Integer, CompletableFuture<Integer>> claimed = Collections.singletonMap(key, future);
+        start(claimed, () -> {
+            try {
+                int value = loader.applyAsInt(key);
+                put(key, value);                    // Publish to the cache before leaving inFlight
+                inFlight.remove(key, future);
+                future.complete(value);
+            } catch (Throwable t) {
+                fail(claimed, t);
+            }
+        });
+        return future;
+    }
+
+    // Resolve many keys, loading every key that is neither cached nor in flight with one batch call
+    public CompletableFuture<Map<Integer, Integer>> getAllOrLoad(
+            int[] keys, Function<int[], Map<Integer, Integer>> batchLoader) {
+        Map<Integer, CompletableFuture<Integer>> futures = new HashMap<>();
+        Map<Integer, CompletableFuture<Integer>> claimed = new HashMap<>();
+        for (int key : keys) {
+            if (futures.containsKey(key)) {
+                continue;                           // Duplicate key in the request
+            }
+            Node node = lookup(key);
+            if (node != null) {
+                futures.put(key, CompletableFuture.completedFuture(node.value));
+                continue;
+            }
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            CompletableFuture<Integer> existing = inFlight.putIfAbsent(key, future);
+            if (existing != null) {
+                futures.put(key, existing);
+                continue;
+            }
+            node = lookup(key);
+            if (node != null) {
+                inFlight.remove(key, future);
+                future.complete(node.value);
+            } else {
+                claimed.put(key, future);
+            }
+            futures.put(key, future);
+        }
+        if (!claimed.isEmpty()) {
+            int[] batch = new int[claimed.size()];
+            int i = 0;
+            for (int key : claimed.keySet()) {
+                batch[i++] = key;
+            }
+            start(claimed, () -> {
+                try {
+                    Map<Integer, Integer> loaded = batchLoader.apply(batch);
+                    if (loaded == null) {
+                        throw new NullPointerException("batch loader returned null");
+                    }
+                    for (Map.Entry<Integer, CompletableFuture<Integer>> entry : claimed.entrySet()) {
+                        Integer value = loaded.get(entry.getKey());
+                        inFlight.remove(entry.getKey(), entry.getValue());
+                        if (value == null) {         // Unknown to the loader: never complete with null
+                            entry.getValue().completeExceptionally(
+                                    new NoSuchElementException("no value loaded for key " + entry.getKey()));
+                            continue;
+                        }
+                        put(entry.getKey(), value);
+                        entry.getValue().complete(value);
+                    }
+                } catch (Throwable t) {
+                    fail(claimed, t);
+                }
+            });
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, failure) -> {
+                    Map<Integer, Integer> result = new HashMap<>();
+                    for (Map.Entry<Integer, CompletableFuture<Integer>> entry : futures.entrySet()) {
+                        try {
+                            result.put(entry.getKey(), entry.getValue().join());
+                        } catch (CompletionException e) {
+                            if (!(e.getCause() instanceof NoSuchElementException)) {
+                                throw e;            // A real load failure fails the whole request
+                            }
+                        }
+                    }
+                    return result;
+                });
+    }
+
+    // Run a load on the executor; if the executor rejects it, release and fail the claimed futures
+    private void start(Map<Integer, CompletableFuture<Integer>> claimed, Runnable load) {
+        try {
+            executor.execute(load);
+        } catch (RejectedExecutionException e) {
+            fail(claimed, e);
+        }
+    }
+
+    // Drop the in-flight claims so the next caller retries, then fail every waiter
+    private void fail(Map<Integer, CompletableFuture<Integer>> claimed, Throwable t) {
+        for (Map.Entry<Integer, CompletableFuture<Integer>> entry : claimed.entrySet()) {
+            inFlight.remove(entry.getKey(), entry.getValue());
+            entry.getValue().completeExceptionally(t);
+        }
+    }
+
+    // Find the node and mark it most recently used, or return null
+    private synchronized Node lookup(int key) {
+        Node node = map.get(key);
+        if (node != null) {
+            remove(node);
+            insertAtHead(node);
+        }
+        return node;
+    }
+
+    // Helper method to remove a node from the doubly linked list
+    private void remove(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+    }
+
+    // Helper method to insert a node right after the head
+    private void insertAtHead(Node node) {
+        node.next = head.next;
+        node.next.prev = node;
+        head.next = node;
+        node.prev = head;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int threads = 64;
+        final int rounds = 200;
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+        ExecutorService loaders = Executors.newFixedThreadPool(4);
+
+        // Single key: every round, 64 threads miss on a fresh key at the same instant
+        LoadingLRUCache cache = new LoadingLRUCache(1_000, loaders);
+        AtomicInteger loads = new AtomicInteger();
+        for (int round = 0; round < rounds; round++) {
+            final int key = round;
+            CyclicBarrier barrier = new CyclicBarrier(threads);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(callers.submit(() -> {
+                    barrier.await();
+                    return cache.getOrLoad(key, k -> {
+                        loads.incrementAndGet();
+                        sleep(1);                   // Simulate an expensive backend call
+                        return k * 10;
+                    }).get();
+                }));
+            }
+            for (Future<Integer> result : results) {
+                if (result.get() != key * 10) {
+                    throw new AssertionError("wrong value for key " + key);
+                }
+            }
+        }
+        if (loads.get() != rounds) {
+            throw new AssertionError("expected " + rounds + " loads, got " + loads.get());
+        }
+        System.out.println("getOrLoad: " + rounds + " rounds x " + threads + " threads -> "
+                + loads.get() + " loader calls (exactly one per key)");
+
+        // Bulk: overlapping key sets from many threads, each key must be loaded exactly once
+        LoadingLRUCache bulk = new LoadingLRUCache(10_000, loaders);
+        ConcurrentHashMap<Integer, AtomicInteger> perKey = new ConcurrentHashMap<>();
+        AtomicInteger batches = new AtomicInteger();
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        List<Future<Map<Integer, Integer>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * 8;
+            results.add(callers.submit(() -> {
+                int[] keys = new int[64];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = offset + i;           // Neighbouring threads overlap on 56 keys
+                }
+                barrier.await();
+                return bulk.getAllOrLoad(keys, batch -> {
+                    batches.incrementAndGet();
+                    Map<Integer, Integer> loaded = new HashMap<>();
+                    for (int k : batch) {
+                        perKey.computeIfAbsent(k, x -> new AtomicInteger()).incrementAndGet();
+                        loaded.put(k, k * 10);
+                    }
+                    sleep(1);
+                    return loaded;
+                }).get();
+            }));
+        }
+        for (Future<Map<Integer, Integer>> result : results) {
+            if (result.get().size() != 64) {
+                throw new AssertionError("missing keys in bulk result");
+            }
+        }
+        for (Map.Entry<Integer, AtomicInteger> entry : perKey.entrySet()) {
+            if (entry.getValue().get() != 1) {
+                throw new AssertionError("key " + entry.getKey() + " loaded " + entry.getValue() + " times");
+            }
+        }
+        System.out.println("getAllOrLoad: " + threads + " overlapping requests -> " + batches.get()
+                + " batch calls, " + perKey.size() + " keys each loaded exactly once");
+
+        // Rejected load: the claim is released, so callers fail fast instead of waiting forever
+        LoadingLRUCache rejecting = new LoadingLRUCache(10, task -> {
+            throw new RejectedExecutionException("executor shut down");
+        });
+        for (int attempt = 0; attempt < 2; attempt++) {
+            CompletableFuture<Integer> failed = rejecting.getOrLoad(1, k -> k);
+            if (!failed.isCompletedExceptionally() || !rejecting.inFlight.isEmpty()) {
+                throw new AssertionError("rejected load left a pending claim");
+            }
+        }
+
+        // Key missing from a batch: a getOrLoad caller sharing the in-flight future gets an exception
+        LoadingLRUCache partial = new LoadingLRUCache(10, loaders);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Map<Integer, Integer>> some = partial.getAllOrLoad(new int[] {1, 2}, batch -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singletonMap(1, 10);   // Key 2 is unknown to the backend
+        });
+        CompletableFuture<Integer> shared = partial.getOrLoad(2, k -> k * 10);   // Joins the batch's load
+        release.countDown();
+        if (!some.get().equals(Collections.singletonMap(1, 10))) {
+            throw new AssertionError("partial batch result: " + some.get());
+        }
+        try {
+            shared.get();
+            throw new AssertionError("missing key completed with a value");
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof NoSuchElementException)) throw e;
+        }
+        System.out.println("rejected loads and keys missing from a batch fail their waiters instead of hanging");
+
+        callers.shutdown();
+        loaders.shutdown();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
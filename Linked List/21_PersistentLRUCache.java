@@ -0,0 +1,418 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+public class PersistentLRUCache {
+    // Problem: Warm-Restart LRU Cache
+    // After a restart the LRU Cache is empty and every request goes to the backend until it warms up
+    // again. Add save(path), which writes all entries in recency order to a compact binary file, and
+    // load(path, capacity), which rebuilds an equivalent cache (same keys, values and LRU order) from
+    // it. The file is validated with a checksum, and a restarted cache of 10M entries should be usable
+    // well under a second after load() starts.
+    // DSA Pattern: Doubly Linked List + Hash Map + Memory-Mapped Binary Snapshot
+    // The cache is the classic map + doubly linked list. The snapshot is a flat array of (key, value)
+    // int pairs written through a MappedByteBuffer, so both save and load are sequential memory copies
+    // handled by the OS page cache rather than millions of small stream writes.
+    // File layout (big-endian):
+    //   int magic | int version | int count | count * (int key, int value) | long crc32(pairs)
+    // Pairs are ordered from least to most recently used, so replaying them with insertAtHead
+    // reproduces the exact LRU order.
+    // Approach:
+    // 1. save(path):
+    //    - Map a temp file of size header + 8 * count + 8.
+    //    - Walk the list from tail.prev back to head, writing key/value pairs.
+    //    - Compute CRC32 over the pairs region, append it, force() to disk, then atomically rename
+    //      the temp file over the target so a crash never leaves a half-written snapshot behind.
+    // 2. load(path, capacity):
+    //    - Map the file read-only and check magic, version and that the size matches count.
+    //    - Verify the CRC32 of the pairs region before touching any data.
+    //    - Bulk-copy the pairs into an int[] via an IntBuffer view. If the snapshot holds more entries
+    //      than the new capacity, only the most recently used ones are kept.
+    //    - Build a primitive open-addressing index (key -> pair number) over the copied pairs and
+    //      return: the cache is usable now, although no Node exists yet.
+    //    - Any mismatch throws IOException; the caller can fall back to an empty cache.
+    // 3. Lazy rebuild: the pending pairs are older than every node in the list, so
+    //    - each get/put first turns up to LOAD_STEP pending pairs into nodes, newest first, appending
+    //      them at the tail (behind everything already in the list);
+    //    - a get/put on a key that is still pending finds it through the index and promotes it to a
+    //      node at the head right away (a bit in `promoted` marks the pair as gone);
+    //    - eviction takes the oldest pending pair before any node, since it is the least recently used.
+    //    Once no pending pair is left, the pairs, index and bit set are dropped. completeLoad() (also
+    //    called by save()) finishes the rebuild at once.
+    // Key Points to Remember:
+    // - Writing to a temp file + ATOMIC_MOVE makes the snapshot all-or-nothing.
+    // - CRC32 catches truncated or bit-flipped files; the size check catches truncation cheaply first.
+    // - Presizing the HashMap (count / 0.75 + 1) avoids ~24 rehashes while the nodes are rebuilt.
+    // - Reading and verifying 10M entries (76 MB) takes tens of milliseconds. Allocating 10M nodes
+    //   and map entries takes over a second, which is why it happens incrementally after load().
+    // - get/put/size behave exactly as if every entry had been rebuilt eagerly; only the cost moves.
+    // - During the rebuild, the pairs (8 bytes per entry) and index (~7 bytes per entry) are held in
+    //   addition to the nodes built so far.
+    // - A single MappedByteBuffer is limited to 2 GB, i.e. ~268M entries, far above normal capacities.
+    // - Edge cases: empty cache (count 0), capacity smaller than the snapshot, missing or corrupt file.
+    // Time Complexity:
+    // - get/put: O(1) as in LRUCache, plus at most LOAD_STEP node rebuilds while a load is pending.
+    // - load: O(n) sequential I/O and one pass to build the index; save: O(n).
+    // Space Complexity: O(capacity)
+    // - The cache itself, plus the pending pairs and index until the rebuild finishes.
+
+    private static final int MAGIC = 0x4C525531;   // "LRU1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;    // magic + version + count
+    private static final int TRAILER_BYTES = 8;    // crc32 as a long
+    private static final int LOAD_STEP = 16;       // Pending pairs rebuilt per get/put
+
+    // Node class for the doubly linked list
+    private static class Node {
+        int key;    // Key for hash map mapping
+        int value;  // Value stored in the node
+        Node prev;  // Pointer to previous node
+        Node next;  // Pointer to next node
+        Node(int key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final int capacity;               // Maximum number of items in the cache
+    private final HashMap<Integer, Node> map; // Maps keys to nodes for O(1) lookup
+    private final Node head;                  // Dummy head node for the doubly linked list
+    private final Node tail;                  // Dummy tail node for the doubly linked list
+
+    // Snapshot entries not yet rebuilt as nodes; all are older than every node in the list
+    private int[] pending;                    // (key, value) pairs, least recently used first
+    private int pendingStart;                 // Oldest pair that may still be live (evicted from here)
+    private int pendingEnd;                   // Pairs [pendingEnd, ...) are already nodes
+    private int pendingLive;                  // Pairs in [pendingStart, pendingEnd) not yet promoted
+    private BitSet promoted;                  // Pairs promoted to nodes out of order by get/put
+    private int[] pendingIndex;               // Open addressing: key -> pair number + 1 (0 = empty)
+    private int indexShift;                   // 32 - log2(pendingIndex.length)
+
+    // Initialize an empty cache with given capacity
+    public PersistentLRUCache(int capacity) {
+        this(capacity, 16);
+    }
+
+    private PersistentLRUCache(int capacity, int initialMapCapacity) {
+        this.capacity = capacity;
+        this.map = new HashMap<>(initialMapCapacity);
+        this.head = new Node(0, 0);
+        this.tail = new Node(0, 0);
+        head.next = tail;
+        tail.prev = head;
+    }
+
+    // Get the value associated with the key, or -1 if not found
+    public int get(int key) {
+        Node node = find(key);
+        if (node == null) {
+            return -1;
+        }
+        remove(node);
+        insertAtHead(node);
+        return node.value;
+    }
+
+    // Insert or update a key-value pair in the cache
+    public void put(int key, int value) {
+        Node node = find(key);
+        if (node != null) {
+            node.value = value;
+            remove(node);
+            insertAtHead(node);
+            return;
+        }
+        if (size() == capacity) {
+            evictOldest();
+        }
+        Node newNode = new Node(key, value);
+        map.put(key, newNode);
+        insertAtHead(newNode);
+    }
+
+    public int size() {
+        return map.size() + pendingLive;
+    }
+
+    // True while some snapshot entries have not been rebuilt as nodes yet
+    public boolean isLoading() {
+        return pending != null;
+    }
+
+    // Rebuild every remaining snapshot entry now
+    public void completeLoad() {
+        loadStep(Integer.MAX_VALUE);
+    }
+
+    // Write every entry, least recently used first, to path (atomically replaced)
+    public void save(Path path) throws IOException {
+        completeLoad();
+        int count = map.size();
+        long fileSize = HEADER_BYTES + 8L * count + TRAILER_BYTES;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("snapshot too large for a single mapping: " + count + " entries");
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(count);
+            for (Node node = tail.prev; node != head; node = node.prev) {
+                buffer.putInt(node.key).putInt(node.value);
+            }
+            buffer.putLong(checksum(buffer, count));
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Rebuild a cache from a snapshot written by save(); throws IOException if it is invalid
+    public static PersistentLRUCache load(Path path, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES + TRAILER_BYTES || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("snapshot has invalid size " + fileSize);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("not an LRU snapshot (bad magic or version)");
+            }
+            int count = buffer.getInt();
+            if (count < 0 || fileSize != HEADER_BYTES + 8L * count + TRAILER_BYTES) {
+                throw new IOException("snapshot is truncated or has a bad entry count");
+            }
+            if (buffer.getLong(HEADER_BYTES + 8 * count) != checksum(buffer, count)) {
+                throw new IOException("snapshot checksum mismatch");
+            }
+
+            int kept = Math.max(0, Math.min(count, capacity));
+            int[] pairs = new int[2 * kept];
+            IntBuffer ints = buffer.position(HEADER_BYTES).slice().asIntBuffer();
+            ints.position(2 * (count - kept));      // Skip the oldest entries that do not fit
+            ints.get(pairs);
+
+            PersistentLRUCache cache = new PersistentLRUCache(capacity, (int) (kept / 0.75f) + 1);
+            if (kept > 0) {
+                cache.startLoad(pairs, kept);
+            }
+            return cache;
+        }
+    }
+
+    // Index the pending pairs; nodes are rebuilt later by loadStep and promote
+    private void startLoad(int[] pairs, int kept) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, (int) (kept / 0.6)));   // Load <= 0.6
+        int[] index = new int[1 << bits];
+        int shift = 32 - bits;
+        int mask = index.length - 1;
+        for (int p = 0; p < kept; p++) {
+            int slot = (pairs[2 * p] * 0x9E3779B9) >>> shift;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = p + 1;
+        }
+        pending = pairs;
+        pendingStart = 0;
+        pendingEnd = kept;
+        pendingLive = kept;
+        promoted = new BitSet(kept);
+        pendingIndex = index;
+        indexShift = shift;
+    }
+
+    // Node for key (promoting a pending pair if needed), or null; advances a pending load
+    private Node find(int key) {
+        Node node = map.get(key);
+        if (node == null && pending != null) {
+            node = promote(key);
+        }
+        loadStep(LOAD_STEP);
+        return node;
+    }
+
+    // Turn the pending pair for key into a node at the head, or return null if key is not pending
+    private Node promote(int key) {
+        int mask = pendingIndex.length - 1;
+        for (int slot = (key * 0x9E3779B9) >>> indexShift; pendingIndex[slot] != 0; slot = (slot + 1) & mask) {
+            int p = pendingIndex[slot] - 1;
+            if (pending[2 * p] == key) {
+                if (p < pendingStart || p >= pendingEnd || promoted.get(p)) {
+                    return null;                    // Evicted or already a node
+                }
+                promoted.set(p);
+                pendingLive--;
+                Node node = new Node(key, pending[2 * p + 1]);
+                map.put(key, node);
+                insertAtHead(node);
+                releaseIfLoaded();
+                return node;
+            }
+        }
+        return null;
+    }
+
+    // Rebuild up to budget pending pairs, newest first, behind every node already in the list
+    private void loadStep(int budget) {
+        while (pendingLive > 0 && budget-- > 0) {
+            int p = --pendingEnd;
+            if (promoted.get(p)) {
+                continue;
+            }
+            Node node = new Node(pending[2 * p], pending[2 * p + 1]);
+            map.put(node.key, node);
+            insertAtTail(node);
+            pendingLive--;
+        }
+        releaseIfLoaded();
+    }
+
+    // Drop the least recently used entry: the oldest pending pair if any, else the list tail
+    private void evictOldest() {
+        if (pendingLive > 0) {
+            while (promoted.get(pendingStart)) {
+                pendingStart++;
+            }
+            pendingStart++;
+            pendingLive--;
+            releaseIfLoaded();
+            return;
+        }
+        map.remove(tail.prev.key);
+        remove(tail.prev);
+    }
+
+    private void releaseIfLoaded() {
+        if (pending != null && pendingLive == 0) {
+            pending = null;
+            promoted = null;
+            pendingIndex = null;
+        }
+    }
+
+    // CRC32 of the (key, value) region
+    private static long checksum(ByteBuffer buffer, int count) {
+        CRC32 crc = new CRC32();
+        ByteBuffer pairs = buffer.duplicate();
+        pairs.position(HEADER_BYTES).limit(HEADER_BYTES + 8 * count);
+        crc.update(pairs);
+        return crc.getValue();
+    }
+
+    // Helper method to remove a node from the doubly linked list
+    private void remove(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+    }
+
+    // Helper method to insert a node right before the tail (used for entries older than the list)
+    private void insertAtTail(Node node) {
+        node.prev = tail.prev;
+        node.prev.next = node;
+        tail.prev = node;
+        node.next = tail;
+    }
+
+    // Helper method to insert a node right after the head
+    private void insertAtHead(Node node) {
+        node.next = head.next;
+        node.next.prev = node;
+        head.next = node;
+        node.prev = head;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path path = Files.createTempFile("lru", ".snapshot");
+
+        PersistentLRUCache cache = new PersistentLRUCache(entries);
+        for (int i = 0; i < entries; i++) {
+            cache.put(i, i * 2);
+        }
+        cache.get(0);                               // Key 0 becomes the most recently used
+
+        long start = System.nanoTime();
+        cache.save(path);
+        long saveMillis = (System.nanoTime() - start) / 1_000_000;
+        cache = null;                               // Drop the original before reloading
+
+        start = System.nanoTime();
+        PersistentLRUCache restored = PersistentLRUCache.load(path, entries);
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        Random random = new Random(7);
+        long firstGets = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            int key = random.nextInt(entries);
+            if (restored.get(key) != key * 2) throw new AssertionError("lazy get(" + key + ")");
+        }
+        long firstGetsMicros = (System.nanoTime() - firstGets) / 1_000;
+        start = System.nanoTime();
+        restored.completeLoad();
+        long rebuildMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%d entries, %d MB: save %d ms, load until usable %d ms (first 1000 gets %d us),"
+                + " remaining node rebuild %d ms%n", entries, Files.size(path) >> 20, saveMillis, loadMillis,
+                firstGetsMicros, rebuildMillis);
+        System.out.println("get(0) = " + restored.get(0) + ", get(" + (entries - 1) + ") = "
+                + restored.get(entries - 1));
+        restored = null;
+
+        checkLazyMatchesEager(path.resolveSibling(path.getFileName() + ".check"));
+
+        // A smaller cache keeps only the most recent entries: key 0 was touched last, key 1 is the oldest
+        PersistentLRUCache small = PersistentLRUCache.load(path, 2);
+        System.out.println("capacity 2: get(0) = " + small.get(0) + ", get(1) = " + small.get(1));
+
+        // Flip one byte: the checksum must reject the file
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7F}), HEADER_BYTES + 5);
+        }
+        try {
+            PersistentLRUCache.load(path, entries);
+            System.out.println("corrupt snapshot was accepted!");
+        } catch (IOException e) {
+            System.out.println("corrupt snapshot rejected: " + e.getMessage());
+        }
+        Files.delete(path);
+    }
+
+    // Random gets/puts on a cache that is still loading must behave like one rebuilt eagerly
+    private static void checkLazyMatchesEager(Path path) throws IOException {
+        Random random = new Random(3);
+        PersistentLRUCache source = new PersistentLRUCache(50_000);
+        for (int i = 0; i < 200_000; i++) source.put(random.nextInt(100_000), i);
+        source.save(path);
+        for (int capacity : new int[] {50_000, 30_000}) {   // Second case drops the oldest entries
+            PersistentLRUCache lazy = PersistentLRUCache.load(path, capacity);
+            PersistentLRUCache eager = PersistentLRUCache.load(path, capacity);
+            eager.completeLoad();
+            for (int i = 0; i < 1_500; i++) {              // 1500 * LOAD_STEP < capacity: still loading
+                int key = random.nextInt(120_000);
+                if (random.nextInt(3) == 0) {
+                    lazy.put(key, -i);
+                    eager.put(key, -i);
+                } else if (lazy.get(key) != eager.get(key)) {
+                    throw new AssertionError("lazy and eager caches differ on key " + key);
+                }
+                if (lazy.size() != eager.size()) throw new AssertionError("size differs");
+            }
+            if (!lazy.isLoading()) throw new AssertionError("check should run while still loading");
+            Path lazyFile = path.resolveSibling(path.getFileName() + ".lazy");
+            lazy.save(lazyFile);                            // Same entries in the same LRU order
+            eager.save(path.resolveSibling(path.getFileName() + ".eager"));
+            if (!Arrays.equals(Files.readAllBytes(lazyFile),
+                    Files.readAllBytes(path.resolveSibling(path.getFileName() + ".eager")))) {
+                throw new AssertionError("lazy and eager caches saved different snapshots");
+            }
+            Files.delete(lazyFile);
+            Files.delete(path.resolveSibling(path.getFileName() + ".eager"));
+        }
+        Files.delete(path);
+        System.out.println("lazy rebuild matches an eager rebuild under random gets and puts");
+    }
+}
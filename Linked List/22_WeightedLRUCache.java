@@ -0,0 +1,167 @@
+import java.util.*;
+
+public class WeightedLRUCache<V> {
+    // Problem: Weight-Bounded LRU Cache
+    // LRUCache bounds its size by entry count (map.size() == capacity), but when values range from a
+    // few bytes to megabytes an entry count says nothing about memory. Bound the cache by total weight
+    // instead: a weigher function gives each entry a weight (e.g. its size in bytes) and the cache keeps
+    // the sum of weights <= maxWeight by evicting least recently used entries. An entry heavier than the
+    // whole budget is rejected instead of flushing the entire cache.
+    // DSA Pattern: Doubly Linked List + Hash Map + Running Sum
+    // Same map + doubly linked list as LRUCache; each node also remembers its weight, and the cache keeps
+    // a running totalWeight so no operation ever has to re-add weights.
+    // Approach:
+    // 1. Each node stores key, value and weight (computed once by the weigher when the value is put).
+    // 2. get(key): as in LRUCache; returns the value or null.
+    // 3. put(key, value):
+    //    - weight = weigher.weigh(key, value). If weight > maxWeight, reject: return false (and drop
+    //      any old value for the key, since the caller meant to replace it).
+    //    - Existing key: totalWeight += newWeight - oldWeight, replace the value, move to the head.
+    //    - New key: insert at the head and add its weight.
+    //    - While totalWeight > maxWeight, evict tail.prev and subtract its weight.
+    // 4. The entry just written sits at the head and weighs <= maxWeight, so the eviction loop always
+    //    stops before reaching it.
+    // Key Points to Remember:
+    // - Weights are computed once per put and stored in the node; re-weighing on eviction would be
+    //   wrong if the value was mutated after insertion.
+    // - totalWeight is a long so many large entries cannot overflow it.
+    // - One put can evict several small entries to make room for one big entry; each eviction is O(1)
+    //   and every entry is evicted at most once, so the cost is amortized O(1) per put.
+    // - Weights must be non-negative; a zero weight is allowed (such entries are only evicted if they
+    //   are the least recently used when space is needed).
+    // - Edge cases: value heavier than maxWeight, update that makes an entry heavier, maxWeight 0.
+    // Time Complexity: O(1) amortized
+    // - get: O(1).
+    // - put: O(1) + O(evicted entries), amortized O(1).
+    // Space Complexity: O(n)
+    // - n entries currently cached, each with one extra int for its weight.
+
+    // Computes the weight of an entry, e.g. its size in bytes
+    @FunctionalInterface
+    public interface Weigher<V> {
+        int weigh(int key, V value);
+    }
+
+    // Node class for the doubly linked list
+    private static class Node<V> {
+        int key;        // Key for hash map mapping
+        V value;        // Value stored in the node
+        int weight;     // Weight computed when the value was put
+        Node<V> prev;   // Pointer to previous node
+        Node<V> next;   // Pointer to next node
+        Node(int key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private final long maxWeight;                 // Upper bound on the sum of weights
+    private final Weigher<V> weigher;             // Weight of each entry
+    private final HashMap<Integer, Node<V>> map;  // Maps keys to nodes for O(1) lookup
+    private final Node<V> head;                   // Dummy head node for the doubly linked list
+    private final Node<V> tail;                   // Dummy tail node for the doubly linked list
+    private long totalWeight;                     // Sum of weights of all cached entries
+
+    // Initialize the cache with a total weight budget and a weigher
+    public WeightedLRUCache(long maxWeight, Weigher<V> weigher) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("maxWeight must be non-negative");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.map = new HashMap<>();
+        this.head = new Node<>(0, null, 0);
+        this.tail = new Node<>(0, null, 0);
+        head.next = tail;
+        tail.prev = head;
+    }
+
+    // Get the value associated with the key, or null if not found
+    public V get(int key) {
+        Node<V> node = map.get(key);
+        if (node == null) {
+            return null;
+        }
+        remove(node);
+        insertAtHead(node);
+        return node.value;
+    }
+
+    // Insert or update a key-value pair; returns false if the entry alone exceeds maxWeight
+    public boolean put(int key, V value) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("negative weight " + weight + " for key " + key);
+        }
+        Node<V> node = map.get(key);
+        if (weight > maxWeight) {
+            if (node != null) {
+                evict(node);            // The old value is being replaced, so it must not linger
+            }
+            return false;
+        }
+        if (node != null) {
+            totalWeight += weight - node.weight;
+            node.value = value;
+            node.weight = weight;
+            remove(node);
+            insertAtHead(node);
+        } else {
+            node = new Node<>(key, value, weight);
+            map.put(key, node);
+            insertAtHead(node);
+            totalWeight += weight;
+        }
+        // Pop least recently used entries until the budget fits again
+        while (totalWeight > maxWeight) {
+            evict(tail.prev);
+        }
+        return true;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public long weight() {
+        return totalWeight;
+    }
+
+    // Remove a node from the map and the list and release its weight
+    private void evict(Node<V> node) {
+        map.remove(node.key);
+        remove(node);
+        totalWeight -= node.weight;
+    }
+
+    // Helper method to remove a node from the doubly linked list
+    private void remove(Node<V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+    }
+
+    // Helper method to insert a node right after the head
+    private void insertAtHead(Node<V> node) {
+        node.next = head.next;
+        node.next.prev = node;
+        head.next = node;
+        node.prev = head;
+    }
+
+    public static void main(String[] args) {
+        // Budget of 1000 bytes, weight = value length
+        WeightedLRUCache<byte[]> cache = new WeightedLRUCache<>(1_000, (key, value) -> value.length);
+        cache.put(1, new byte[300]);
+        cache.put(2, new byte[300]);
+        cache.put(3, new byte[300]);
+        System.out.println("size=" + cache.size() + " weight=" + cache.weight());     // size=3 weight=900
+        cache.get(1);                                                                // 2 is now LRU
+        cache.put(4, new byte[500]);                                                 // evicts 2 and 3
+        System.out.println("get(2)=" + cache.get(2) + " get(3)=" + cache.get(3));     // null null
+        System.out.println("size=" + cache.size() + " weight=" + cache.weight());     // size=2 weight=800
+        System.out.println("put 5 (2000 bytes) accepted? " + cache.put(5, new byte[2_000])); // false
+        cache.put(1, new byte[100]);                                                 // shrink in place
+        System.out.println("size=" + cache.size() + " weight=" + cache.weight());     // size=2 weight=600
+    }
+}
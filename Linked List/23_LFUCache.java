@@ -0,0 +1,219 @@
+import java.util.*;
+
+public class LFUCache {
+    // Problem: LFU Cache
+    // Design a Least Frequently Used (LFU) cache with the same get/put contract as the LRU Cache.
+    // When the cache is full, put evicts the key with the lowest use count (every get or put of a key
+    // counts as a use). Ties between keys with the same count are broken by LRU order: the least
+    // recently used of them is evicted. get, put and eviction must all be O(1).
+    // DSA Pattern: Hash Map + Doubly Linked List of Frequency Buckets (each an LRU list)
+    // - A doubly linked list of buckets ordered by frequency (1, 2, 5, ...). Only frequencies that
+    //   currently have keys get a bucket.
+    // - Each bucket is an LRU list with dummy head/tail nodes, exactly like LRUCache, so the most
+    //   recently used key of that frequency is right after head and the least recently used is tail.prev.
+    // - A hash map from key to node; every node knows the bucket it is in.
+    // Approach:
+    // 1. get(key): if absent return -1. Otherwise touch(node) and return its value.
+    // 2. touch(node): the node moves from bucket f to bucket f + 1.
+    //    - If the bucket after its current one does not have frequency f + 1, create it right there.
+    //    - Remove the node from the old bucket, insertAtHead into the new one.
+    //    - If the old bucket is now empty, unlink it from the bucket list.
+    // 3. put(key, value):
+    //    - Existing key: update value and touch(node).
+    //    - New key: if full, evict tail.prev of the FIRST bucket (lowest frequency, then least recent).
+    //      Then insert the node into the frequency-1 bucket, creating it at the front if needed.
+    // 4. main() replays identical Zipfian and scan-heavy traces through LFUCache and LRUCache and
+    //    prints hit ratio and throughput (compile together with 14_LRUCache.java).
+    // Key Points to Remember:
+    // - Frequencies only ever grow by 1, so the target bucket is always the neighbour or a new bucket
+    //   inserted right after the current one: no searching, no heap, no minFreq bookkeeping.
+    // - The first bucket always holds the minimum frequency, so eviction is O(1).
+    // - Empty buckets are unlinked immediately, so the bucket list never holds more buckets than keys.
+    // - Plain LFU never forgets: a key that was hot long ago keeps a high count. Workloads whose
+    //   popularity shifts are better served by LRU or by an aging scheme like TinyLFU.
+    // - Edge cases: capacity 0 (nothing is ever stored), updating an existing key (counts as a use).
+    // Time Complexity: O(1)
+    // - get/put/eviction: O(1) hash map operations and a constant number of pointer updates.
+    // Space Complexity: O(capacity)
+    // - At most capacity nodes and capacity buckets, plus the hash map.
+
+    // Node class for the per-bucket doubly linked list
+    private static class Node {
+        int key;        // Key for hash map mapping
+        int value;      // Value stored in the node
+        Bucket bucket;  // Frequency bucket that currently holds the node
+        Node prev;      // Pointer to previous node in the bucket
+        Node next;      // Pointer to next node in the bucket
+        Node(int key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    // All keys used exactly freq times, in LRU order
+    private static class Bucket {
+        final int freq;               // Use count shared by every node in this bucket
+        final Node head;              // Dummy head node (most recently used)
+        final Node tail;              // Dummy tail node (least recently used)
+        Bucket prev;                  // Bucket with the next lower frequency
+        Bucket next;                  // Bucket with the next higher frequency
+        Bucket(int freq) {
+            this.freq = freq;
+            this.head = new Node(0, 0);
+            this.tail = new Node(0, 0);
+            head.next = tail;
+            tail.prev = head;
+        }
+
+        boolean isEmpty() {
+            return head.next == tail;
+        }
+
+        // Helper method to remove a node from this bucket
+        void remove(Node node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+        }
+
+        // Helper method to insert a node right after the head
+        void insertAtHead(Node node) {
+            node.next = head.next;
+            node.next.prev = node;
+            head.next = node;
+            node.prev = head;
+            node.bucket = this;
+        }
+    }
+
+    private final int capacity;               // Maximum number of items in the cache
+    private final HashMap<Integer, Node> map; // Maps keys to nodes for O(1) lookup
+    private final Bucket first;               // Dummy bucket before the lowest frequency
+    private final Bucket last;                // Dummy bucket after the highest frequency
+
+    // Initialize the LFU Cache with given capacity
+    public LFUCache(int capacity) {
+        this.capacity = capacity;
+        this.map = new HashMap<>();
+        this.first = new Bucket(0);
+        this.last = new Bucket(Integer.MAX_VALUE);
+        first.next = last;
+        last.prev = first;
+    }
+
+    // Get the value associated with the key, or -1 if not found
+    public int get(int key) {
+        Node node = map.get(key);
+        if (node == null) {
+            return -1;
+        }
+        touch(node);
+        return node.value;
+    }
+
+    // Insert or update a key-value pair in the cache
+    public void put(int key, int value) {
+        if (capacity <= 0) {
+            return;
+        }
+        Node node = map.get(key);
+        if (node != null) {
+            node.value = value;
+            touch(node);
+            return;
+        }
+        if (map.size() == capacity) {
+            // Lowest frequency bucket, least recently used node within it
+            Bucket lowest = first.next;
+            Node victim = lowest.tail.prev;
+            lowest.remove(victim);
+            map.remove(victim.key);
+            if (lowest.isEmpty()) {
+                unlink(lowest);
+            }
+        }
+        Bucket ones = first.next.freq == 1 ? first.next : insertAfter(first, 1);
+        node = new Node(key, value);
+        ones.insertAtHead(node);
+        map.put(key, node);
+    }
+
+    // Move a node from its bucket to the bucket with frequency + 1
+    private void touch(Node node) {
+        Bucket current = node.bucket;
+        Bucket target = current.next.freq == current.freq + 1
+                ? current.next
+                : insertAfter(current, current.freq + 1);
+        current.remove(node);
+        target.insertAtHead(node);
+        if (current.isEmpty()) {
+            unlink(current);
+        }
+    }
+
+    // Create a bucket with the given frequency right after an existing one
+    private Bucket insertAfter(Bucket bucket, int freq) {
+        Bucket created = new Bucket(freq);
+        created.prev = bucket;
+        created.next = bucket.next;
+        bucket.next.prev = created;
+        bucket.next = created;
+        return created;
+    }
+
+    // Remove an empty bucket from the bucket list
+    private void unlink(Bucket bucket) {
+        bucket.prev.next = bucket.next;
+        bucket.next.prev = bucket.prev;
+    }
+
+    // Benchmark: hit ratio and throughput of LFUCache vs. LRUCache on identical traces
+    public static void main(String[] args) {
+        final int capacity = 1_000;
+        final int length = 2_000_000;
+        Random random = new Random(11);
+
+        int[] zipf = new int[length];
+        double[] cdf = new double[100_000];
+        double sum = 0;
+        for (int i = 0; i < cdf.length; i++) {
+            sum += 1.0 / Math.pow(i + 1, 0.99);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < length; i++) {
+            int idx = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            zipf[i] = idx >= 0 ? idx : -idx - 1;
+        }
+
+        // Hot set half the cache size, interrupted by long scans of never-repeated keys
+        int[] scan = new int[length];
+        for (int i = 0, next = 1_000_000; i < length; ) {
+            for (int j = 0; j < 5 * capacity && i < length; j++) scan[i++] = random.nextInt(capacity / 2);
+            for (int j = 0; j < 2 * capacity && i < length; j++) scan[i++] = next++;
+        }
+
+        System.out.println("trace     LRU hit%   LFU hit%   LRU ops/s    LFU ops/s");
+        report("zipfian", zipf, capacity);
+        report("scan", scan, capacity);
+    }
+
+    private static void report(String name, int[] trace, int capacity) {
+        LRUCache lru = new LRUCache(capacity);
+        long start = System.nanoTime();
+        int lruHits = 0;
+        for (int key : trace) {
+            if (lru.get(key) != -1) lruHits++; else lru.put(key, key);
+        }
+        double lruOps = trace.length / ((System.nanoTime() - start) / 1e9);
+
+        LFUCache lfu = new LFUCache(capacity);
+        start = System.nanoTime();
+        int lfuHits = 0;
+        for (int key : trace) {
+            if (lfu.get(key) != -1) lfuHits++; else lfu.put(key, key);
+        }
+        double lfuOps = trace.length / ((System.nanoTime() - start) / 1e9);
+
+        System.out.printf("%-8s  %7.2f%%  %8.2f%%  %10.0f  %11.0f%n", name,
+                100.0 * lruHits / trace.length, 100.0 * lfuHits / trace.length, lruOps, lfuOps);
+    }
+}
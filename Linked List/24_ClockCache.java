@@ -0,0 +1,185 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ClockCache {
+    // Problem: CLOCK (Second-Chance) Cache with Lock-Free Reads
+    // In LRUCache every get relinks the node to the head of the list, so a read is really a write and
+    // all readers serialize on the cache lock. Design a cache with the same get/put contract where a
+    // hit does not modify any shared structure except setting a "referenced" bit, so reads need no lock
+    // at all. Eviction approximates LRU with the CLOCK algorithm.
+    // DSA Pattern: Circular Array (Clock Hand) + Concurrent Hash Map
+    // - Entries live in a fixed circular array of slots. Each slot has a reference bit.
+    // - A ConcurrentHashMap maps keys to entries and supports lock-free lookups.
+    // - The "clock hand" walks around the slots when space is needed: a slot with its bit set gets a
+    //   second chance (bit cleared, hand moves on); the first slot found with its bit clear is evicted.
+    // Approach:
+    // 1. get(key): map.get(key) with no lock. On a hit, set referenced[slot] = 1 (only if it is not
+    //    already set, so hot keys do not keep writing the same cache line) and return the value.
+    // 2. put(key, value), under a single writer lock:
+    //    - Existing key: overwrite the entry's volatile value and set its reference bit.
+    //    - Free slot available: use it.
+    //    - Otherwise sweep: while referenced[hand] == 1, clear it and advance; the slot the hand stops
+    //      at is the victim. Remove its entry from the map and reuse the slot.
+    //    - New entries start with the bit clear, so a key must be read again to survive the next sweep.
+    // 3. main() benchmarks a 95% read workload from 1 to 32 threads against ConcurrentLRUCache and a
+    //    synchronized LRUCache (compile together with 14_LRUCache.java and 15_ConcurrentLRUCache.java).
+    // Key Points to Remember:
+    // - Reads touch only the map (lock-free) and one reference bit, so they scale with cores.
+    // - The sweep terminates: after at most one full turn every bit has been cleared.
+    // - Amortized sweep cost is O(1): each bit cleared by the hand was set by an earlier hit.
+    // - Benign races: a reader may return the value of an entry being evicted at that instant, or set
+    //   the bit of a slot that was just reused; both only make the approximation slightly less exact.
+    // - Writers still serialize; CLOCK targets read-heavy workloads where puts are rare.
+    // - Edge cases: capacity 1, repeated put on the same key, reads of keys never inserted.
+    // Time Complexity:
+    // - get: O(1), lock-free.
+    // - put: O(1) amortized (the hand clears at most one bit per earlier hit).
+    // Space Complexity: O(capacity)
+    // - capacity slots, capacity reference bits and the concurrent map.
+
+    // Immutable key and slot, volatile value so updates are visible to lock-free readers
+    private static final class Entry {
+        final int key;          // Key for hash map mapping
+        final int slot;         // Position in the circular array
+        volatile int value;     // Value stored in the entry
+        Entry(int key, int value, int slot) {
+            this.key = key;
+            this.value = value;
+            this.slot = slot;
+        }
+    }
+
+    private final int capacity;                          // Maximum number of items in the cache
+    private final ConcurrentHashMap<Integer, Entry> map; // Lock-free key lookup
+    private final Entry[] slots;                         // Circular array scanned by the hand
+    private final AtomicIntegerArray referenced;         // 1 = hit since the hand last passed
+    private final ReentrantLock writeLock;               // Serializes put and eviction
+    private int used;                                    // Slots filled so far (under writeLock)
+    private int hand;                                    // Clock hand position (under writeLock)
+
+    // Initialize the cache with given capacity
+    public ClockCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.map = new ConcurrentHashMap<>(capacity * 2);
+        this.slots = new Entry[capacity];
+        this.referenced = new AtomicIntegerArray(capacity);
+        this.writeLock = new ReentrantLock();
+    }
+
+    // Get the value associated with the key, or -1 if not found (never blocks)
+    public int get(int key) {
+        Entry entry = map.get(key);
+        if (entry == null) {
+            return -1;
+        }
+        if (referenced.get(entry.slot) == 0) {
+            referenced.lazySet(entry.slot, 1);   // Second chance on the next sweep
+        }
+        return entry.value;
+    }
+
+    // Insert or update a key-value pair in the cache
+    public void put(int key, int value) {
+        writeLock.lock();
+        try {
+            Entry entry = map.get(key);
+            if (entry != null) {
+                entry.value = value;
+                referenced.lazySet(entry.slot, 1);
+                return;
+            }
+            int slot;
+            if (used < capacity) {
+                slot = used++;
+            } else {
+                slot = sweep();
+                map.remove(slots[slot].key);
+            }
+            entry = new Entry(key, value, slot);
+            slots[slot] = entry;
+            referenced.set(slot, 0);
+            map.put(key, entry);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    // Advance the hand past referenced slots (clearing their bits) and return the victim slot
+    private int sweep() {
+        while (true) {
+            int slot = hand;
+            hand = (hand + 1) % capacity;
+            if (referenced.get(slot) == 0) {
+                return slot;
+            }
+            referenced.set(slot, 0);
+        }
+    }
+
+    // Benchmark: 95% reads, CLOCK vs. striped LRU vs. synchronized LRU, 1..32 threads
+    public static void main(String[] args) throws Exception {
+        final int capacity = 10_000;
+        final int keySpace = 12_000;
+        final int opsPerThread = 1_000_000;
+
+        System.out.println("threads  synchronized(ops/s)  striped(ops/s)  clock(ops/s)");
+        for (int threads = 1; threads <= 32; threads <<= 1) {
+            LRUCache baseline = new LRUCache(capacity);
+            double syncOps = run(threads, opsPerThread, keySpace, (write, key) -> {
+                synchronized (baseline) {
+                    if (write) baseline.put(key, key);
+                    else baseline.get(key);
+                }
+            });
+            ConcurrentLRUCache striped = new ConcurrentLRUCache(capacity, 64);
+            double stripedOps = run(threads, opsPerThread, keySpace, (write, key) -> {
+                if (write) striped.put(key, key);
+                else striped.get(key);
+            });
+            ClockCache clock = new ClockCache(capacity);
+            double clockOps = run(threads, opsPerThread, keySpace, (write, key) -> {
+                if (write) clock.put(key, key);
+                else clock.get(key);
+            });
+            System.out.printf("%7d  %19.0f  %14.0f  %12.0f%n", threads, syncOps, stripedOps, clockOps);
+        }
+    }
+
+    private interface CacheOp {
+        void apply(boolean write, int key);
+    }
+
+    // Run a 95% get / 5% put mix on every thread and return total ops per second
+    private static double run(int threads, int opsPerThread, int keySpace, CacheOp op) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                start.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    op.apply(random.nextInt(20) == 0, random.nextInt(keySpace));
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        pool.shutdown();
+        return (double) threads * opsPerThread / (elapsed / 1e9);
+    }
+}